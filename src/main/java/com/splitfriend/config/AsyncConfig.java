@@ -1,9 +1,96 @@
 package com.splitfriend.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    /**
+     * Boot only creates its default executor when no other one exists, so it is declared
+     * here to keep {@code @Async} work off the page read executor.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    /**
+     * Runs the independent reads of a page concurrently. Every task holds a database
+     * connection, so the pool is kept well below the connection pool size; when it is
+     * saturated the reads run on the calling thread instead of queueing indefinitely.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pageReadExecutor(@Value("${app.page-reads.threads:4}") int threads,
+                                                   @Value("${app.page-reads.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("page-read-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(sqlStatsPropagation());
+        return executor;
+    }
+
+    /**
+     * Runs background exports. Both the pool and its queue are bounded: an export submitted
+     * while the queue is full is rejected and its job marked failed rather than piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor exportJobExecutor(@Value("${app.export.jobs.threads:2}") int threads,
+                                                    @Value("${app.export.jobs.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Runs database backups, one at a time on a low-priority thread so that they yield the
+     * CPU to request handling. One more backup may wait; further requests are rejected.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor backupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadPriority(Thread.MIN_PRIORITY);
+        executor.setThreadNamePrefix("backup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Counts SQL run by a task against the request that submitted it.
+     */
+    private static TaskDecorator sqlStatsPropagation() {
+        return task -> {
+            SqlRequestStats stats = SqlRequestStats.current();
+            return () -> {
+                SqlRequestStats previous = SqlRequestStats.current();
+                SqlRequestStats.attach(stats);
+                try {
+                    task.run();
+                } finally {
+                    SqlRequestStats.attach(previous);
+                }
+            };
+        };
+    }
 }
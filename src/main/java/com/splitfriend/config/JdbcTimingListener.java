@@ -0,0 +1,45 @@
+package com.splitfriend.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing JDBC statements and batches to the current request's
+ * {@link SqlRequestStats}. Hibernate creates one instance per session from its class name,
+ * so the listener keeps no state beyond the statement currently executing.
+ */
+public class JdbcTimingListener extends BaseSessionEventListener {
+
+    private long executeStart = -1;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        recordExecution();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        executeStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        recordExecution();
+    }
+
+    private void recordExecution() {
+        if (executeStart < 0) {
+            return;
+        }
+        long elapsed = System.nanoTime() - executeStart;
+        executeStart = -1;
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.addJdbcTime(elapsed);
+        }
+    }
+}
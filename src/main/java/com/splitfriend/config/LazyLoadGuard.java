@@ -0,0 +1,56 @@
+package com.splitfriend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.HibernateException;
+import org.hibernate.LazyInitializationException;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Strict mode for fetch plans: fails any lazy collection or proxy load that happens
+ * without a Spring-managed transaction, such as a template navigating an association
+ * that its controller did not fetch. With open-session-in-view disabled most of these
+ * already fail, but this also catches them when a session happens to be open, for
+ * example when OSIV is re-enabled locally.
+ *
+ * Enabled with {@code app.jpa.strict-lazy-loading=true}; meant for tests and development.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jpa.strict-lazy-loading", havingValue = "true")
+public class LazyLoadGuard implements InitializeCollectionEventListener, LoadEventListener {
+
+    public LazyLoadGuard(EntityManagerFactory entityManagerFactory) {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.INIT_COLLECTION, this);
+        registry.prependListeners(EventType.LOAD, this);
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        check("collection " + event.getAffectedOwnerEntityName() + "#" + event.getAffectedOwnerIdOrNull());
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            check("proxy " + event.getEntityClassName() + "#" + event.getEntityId());
+        }
+    }
+
+    private void check(String what) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new LazyInitializationException("Lazy load of " + what + " outside a transaction; "
+                    + "fetch it in the query that loads the view's data");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.splitfriend.config;
+
+import com.splitfriend.repository.ExpenseRepository;
+import com.splitfriend.repository.GroupRepository;
+import com.splitfriend.repository.SettlementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Runs each hot repository query once at startup, captures the SQL Hibernate prepares for it
+ * and EXPLAINs that SQL, warning when the planner neither uses the index created for it nor
+ * looks rows up by the same key column, for instance after a migration drops an index or a
+ * query changes shape. H2 does not skip the sort of a joined query whichever index it uses,
+ * so a lookup through the foreign key index on the same column is as good and is accepted.
+ * The queries run with ids that match no row, so the check costs a few index probes.
+ * Capturing relies on the statement inspector installed by {@link SqlMonitorConfig}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.db.plan-check.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryPlanCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanCheck.class);
+
+    private static final long NO_ID = -1L;
+    private static final PageRequest ONE_ROW = PageRequest.of(0, 1);
+
+    private final DataSource dataSource;
+    private final ExpenseRepository expenseRepository;
+    private final SettlementRepository settlementRepository;
+    private final GroupRepository groupRepository;
+
+    public QueryPlanCheck(DataSource dataSource,
+                          ExpenseRepository expenseRepository,
+                          SettlementRepository settlementRepository,
+                          GroupRepository groupRepository) {
+        this.dataSource = dataSource;
+        this.expenseRepository = expenseRepository;
+        this.settlementRepository = settlementRepository;
+        this.groupRepository = groupRepository;
+    }
+
+    /**
+     * A repository query, the index created for it and the column that index looks rows up by.
+     */
+    private record Check(String index, String keyColumn, String query, Runnable call) {
+
+        boolean accepts(String plan) {
+            String upper = plan.toUpperCase(Locale.ROOT);
+            // H2 notes the index and its conditions as /* PUBLIC.INDEX_NAME: COLUMN = ?1 */
+            return upper.contains(index)
+                    || Pattern.compile("/\\* PUBLIC\\.\\w+: [^*]*\\b" + keyColumn + " = ").matcher(upper).find();
+        }
+    }
+
+    private List<Check> checks() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        return List.of(
+                new Check("IDX_EXPENSES_GROUP_DATE", "GROUP_ID", "ExpenseRepository.findSummariesByGroupId",
+                        () -> expenseRepository.findSummariesByGroupId(NO_ID, ONE_ROW)),
+                new Check("IDX_EXPENSES_GROUP_DATE", "GROUP_ID", "ExpenseRepository.findSummariesByGroupIdAfter",
+                        () -> expenseRepository.findSummariesByGroupIdAfter(NO_ID, today, now, NO_ID, ONE_ROW)),
+                new Check("IDX_EXPENSE_SPLITS_USER_EXPENSE", "USER_ID", "ExpenseRepository.findExpensesInvolvingUser",
+                        () -> expenseRepository.findExpensesInvolvingUser(NO_ID, 0L, ONE_ROW)),
+                new Check("IDX_SETTLEMENTS_GROUP_SETTLED", "GROUP_ID", "SettlementRepository.findByGroupId",
+                        () -> settlementRepository.findByGroupId(NO_ID)),
+                new Check("IDX_SETTLEMENTS_FROM_TO", "FROM_USER", "SettlementRepository.getTotalSettledBetweenUsers",
+                        () -> settlementRepository.getTotalSettledBetweenUsers(NO_ID, NO_ID, NO_ID)),
+                new Check("IDX_GROUP_MEMBERS_USER_GROUP", "USER_ID", "GroupRepository.findByUserId",
+                        () -> groupRepository.findByUserId(NO_ID))
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkPlans() {
+        List<Check> checks = checks();
+        int missed = 0;
+        int skipped = 0;
+        try (Connection conn = dataSource.getConnection()) {
+            for (Check check : checks) {
+                List<String> statements = captureSql(check.call());
+                if (statements.isEmpty()) {
+                    skipped++;
+                    log.debug("No SQL captured for {}, skipping its plan check", check.query());
+                    continue;
+                }
+                List<String> plans = new ArrayList<>();
+                for (String sql : statements) {
+                    plans.add(explain(conn, sql));
+                }
+                if (plans.stream().anyMatch(check::accepts)) {
+                    log.debug("{} looks rows up by {}\nPlan: {}", check.query(), check.keyColumn(), plans);
+                } else {
+                    missed++;
+                    log.warn("{} uses neither index {} nor a lookup by {}\nSQL: {}\nPlan: {}", check.query(),
+                            check.index(), check.keyColumn(), statements, plans);
+                }
+            }
+        } catch (RuntimeException | SQLException e) {
+            log.warn("Could not check query plans", e);
+            return;
+        }
+        if (skipped == checks.size()) {
+            log.info("Query plan check skipped: no SQL captured, app.sql-monitor.enabled must be true");
+            return;
+        }
+        log.info("Query plan check: {} of {} queries use an index on their key column",
+                checks.size() - skipped - missed, checks.size() - skipped);
+    }
+
+    /**
+     * Runs a repository call with its own statement stats and returns the SELECTs it prepared.
+     */
+    private List<String> captureSql(Runnable call) {
+        SqlRequestStats previous = SqlRequestStats.current();
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            call.run();
+        } finally {
+            SqlRequestStats.attach(previous);
+        }
+        Set<String> statements = stats.getDistinctStatements();
+        return statements.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+    }
+
+    // H2 plans statements whose parameters are left unset
+    private String explain(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + sql);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getString(1) : "";
+        }
+    }
+}
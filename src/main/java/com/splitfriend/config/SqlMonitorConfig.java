@@ -0,0 +1,36 @@
+package com.splitfriend.config;
+
+import com.splitfriend.service.SqlMonitorService;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Wires per-request SQL monitoring: Hibernate reports statements and JDBC time to
+ * the current {@link SqlRequestStats}, and a filter opens and closes it around each request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlMonitorHibernateProperties() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimingListener.class.getName());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMonitorFilter> sqlMonitorFilter(SqlMonitorService sqlMonitorService) {
+        FilterRegistrationBean<SqlMonitorFilter> registration =
+                new FilterRegistrationBean<>(new SqlMonitorFilter(sqlMonitorService));
+        // Outermost, so queries made by the security filters are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.splitfriend.config;
+
+import com.splitfriend.service.SqlMonitorService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Collects the SQL statements run while handling each request and reports them to
+ * {@link SqlMonitorService} under the request's mapped URL pattern.
+ */
+public class SqlMonitorFilter extends OncePerRequestFilter {
+
+    private final SqlMonitorService sqlMonitorService;
+
+    public SqlMonitorFilter(SqlMonitorService sqlMonitorService) {
+        this.sqlMonitorService = sqlMonitorService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlRequestStats.end();
+            sqlMonitorService.record(endpoint(request), stats);
+        }
+    }
+
+    /**
+     * Uses the handler's pattern rather than the raw URI, so /groups/1 and /groups/2 are one endpoint.
+     */
+    private String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "(unmapped)");
+    }
+}
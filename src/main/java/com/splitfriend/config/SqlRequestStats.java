@@ -0,0 +1,92 @@
+package com.splitfriend.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SQL activity of the current HTTP request: how many statements were prepared, how long
+ * JDBC spent executing them and how often each distinct statement was seen. Hibernate
+ * renders parameters as placeholders, so an N+1 shows up as one statement seen many times.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    /** Distinct statements tracked per request, so a runaway loop cannot grow the map without bound. */
+    private static final int MAX_DISTINCT_STATEMENTS = 500;
+
+    private final Map<String, Integer> counts = new HashMap<>();
+    private int statements;
+    private long jdbcNanos;
+    private String mostRepeated;
+    private int mostRepeatedCount;
+
+    public static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Makes {@code stats} the current stats of this thread, so work handed to another
+     * thread is counted against the request that started it. Pass null to detach.
+     */
+    public static void attach(SqlRequestStats stats) {
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+    }
+
+    synchronized void recordStatement(String sql) {
+        statements++;
+        Integer count = counts.get(sql);
+        if (count == null && counts.size() >= MAX_DISTINCT_STATEMENTS) {
+            return;
+        }
+        int updated = count == null ? 1 : count + 1;
+        counts.put(sql, updated);
+        if (updated > mostRepeatedCount) {
+            mostRepeatedCount = updated;
+            mostRepeated = sql;
+        }
+    }
+
+    synchronized void addJdbcTime(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    /**
+     * The distinct statements seen so far, as Hibernate prepared them.
+     */
+    public synchronized Set<String> getDistinctStatements() {
+        return new LinkedHashSet<>(counts.keySet());
+    }
+
+    public synchronized int getStatements() {
+        return statements;
+    }
+
+    public synchronized long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public synchronized String getMostRepeated() {
+        return mostRepeated;
+    }
+
+    public synchronized int getMostRepeatedCount() {
+        return mostRepeatedCount;
+    }
+}
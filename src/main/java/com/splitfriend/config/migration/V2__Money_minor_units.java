@@ -0,0 +1,181 @@
+package com.splitfriend.config.migration;
+
+import com.splitfriend.service.LargestRemainderAllocator;
+import com.splitfriend.service.SplitAllocator;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts money columns from DECIMAL amounts to BIGINT minor units, see
+ * {@link com.splitfriend.model.Money}. Only databases created before the switch still
+ * have DECIMAL columns; on anything else this does nothing.
+ *
+ * Each column is copied into a new one before the old one is dropped, so an interrupted
+ * run never leaves a column half converted. Split amounts are rounded one by one and then
+ * re-rounded per expense where needed, so every expense's splits still add up to its amount.
+ * The balance ledger is emptied rather than rounded, so that it is rebuilt from those splits.
+ */
+@Component
+public class V2__Money_minor_units extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V2__Money_minor_units.class);
+
+    /** Scale of the old DECIMAL money columns. */
+    private static final int DECIMAL_SCALE = 4;
+
+    private final SplitAllocator splitAllocator = new LargestRemainderAllocator();
+
+    // Expenses are converted before their splits, which are re-rounded against them
+    private static final String[][] MONEY_COLUMNS = {
+            {"EXPENSES", "AMOUNT"},
+            {"EXPENSE_SPLITS", "AMOUNT"},
+            {"SETTLEMENTS", "AMOUNT"},
+            {"GROUP_BALANCES", "BALANCE"}
+    };
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection conn = context.getConnection();
+        for (String[] column : MONEY_COLUMNS) {
+            migrateColumn(conn, column[0], column[1]);
+        }
+    }
+
+    private void migrateColumn(Connection conn, String table, String column) throws SQLException {
+        String type = Schema.columnType(conn, table, column);
+        String minor = column + "_MINOR";
+        try (Statement stmt = conn.createStatement()) {
+            if (type == null && Schema.columnType(conn, table, minor) != null) {
+                // Interrupted after the old column was dropped
+                stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + minor + " RENAME TO " + column);
+                stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET NOT NULL");
+                return;
+            }
+            if (type == null || !(type.equals("DECIMAL") || type.equals("NUMERIC"))) {
+                return;
+            }
+
+            log.info("Converting {}.{} to minor units", table, column);
+            if (table.equals("GROUP_BALANCES")) {
+                // Derived from the splits and settlements; an empty ledger is rebuilt at startup
+                stmt.execute("DELETE FROM GROUP_BALANCES");
+            }
+            if (Schema.columnType(conn, table, minor) != null) {
+                stmt.execute("ALTER TABLE " + table + " DROP COLUMN " + minor);
+            }
+            stmt.execute("ALTER TABLE " + table + " ADD COLUMN " + minor + " BIGINT");
+            stmt.execute("UPDATE " + table + " SET " + minor + " = CAST(ROUND(" + column + " * 100, 0) AS BIGINT)");
+            if (table.equals("EXPENSE_SPLITS")) {
+                fixSplitResidue(conn, column, minor);
+            }
+            stmt.execute("ALTER TABLE " + table + " DROP COLUMN " + column);
+            stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + minor + " RENAME TO " + column);
+            stmt.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " SET NOT NULL");
+        }
+    }
+
+    /**
+     * Re-rounds the splits of expenses whose independently rounded splits no longer add up to
+     * the expense, with the largest remainder rule used for new splits, weighted by the exact
+     * old amounts. Expenses that are off by more than rounding can explain were already
+     * inconsistent before the conversion and are left as they are.
+     */
+    private void fixSplitResidue(Connection conn, String column, String minor) throws SQLException {
+        String select = "SELECT s.ID, s.EXPENSE_ID, s." + column + ", s." + minor + ", e.AMOUNT " +
+                "FROM EXPENSE_SPLITS s JOIN EXPENSES e ON e.ID = s.EXPENSE_ID " +
+                "WHERE s.EXPENSE_ID IN (SELECT s2.EXPENSE_ID FROM EXPENSE_SPLITS s2 " +
+                "JOIN EXPENSES e2 ON e2.ID = s2.EXPENSE_ID " +
+                "GROUP BY s2.EXPENSE_ID, e2.AMOUNT HAVING SUM(s2." + minor + ") <> e2.AMOUNT) " +
+                "ORDER BY s.EXPENSE_ID, s.ID";
+        int fixed = 0;
+        int skipped = 0;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(select);
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE EXPENSE_SPLITS SET " + minor + " = ? WHERE ID = ?")) {
+            List<ExpenseSplits> expenses = new ArrayList<>();
+            ExpenseSplits splits = null;
+            while (rs.next()) {
+                long expenseId = rs.getLong(2);
+                if (splits == null || splits.expenseId != expenseId) {
+                    splits = new ExpenseSplits(expenseId, rs.getLong(5));
+                    expenses.add(splits);
+                }
+                splits.add(rs.getLong(1), rs.getBigDecimal(3), rs.getLong(4));
+            }
+            for (ExpenseSplits expense : expenses) {
+                if (expense.reround(update)) {
+                    fixed++;
+                } else {
+                    skipped++;
+                }
+            }
+            update.executeBatch();
+        }
+        if (fixed > 0) {
+            log.info("Re-rounded the splits of {} expenses to add up to their amount", fixed);
+        }
+        if (skipped > 0) {
+            log.warn("The splits of {} expenses do not add up to their amount and were left as they are", skipped);
+        }
+    }
+
+    /**
+     * The splits of one expense, with their old exact amounts and independently rounded ones.
+     */
+    private final class ExpenseSplits {
+
+        private final long expenseId;
+        private final long total;
+        private final List<Long> ids = new ArrayList<>();
+        private final List<Long> weights = new ArrayList<>();
+        private long roundedSum;
+
+        ExpenseSplits(long expenseId, long total) {
+            this.expenseId = expenseId;
+            this.total = total;
+        }
+
+        void add(long id, BigDecimal exact, long rounded) {
+            ids.add(id);
+            weights.add(exact.setScale(DECIMAL_SCALE, RoundingMode.HALF_UP).unscaledValue().longValue());
+            roundedSum += rounded;
+        }
+
+        /**
+         * Queues the re-rounded amounts on {@code update}.
+         * @return false if the expense is off by more than rounding and was left alone
+         */
+        boolean reround(PreparedStatement update) throws SQLException {
+            // Each split and the expense are off by at most half a cent
+            if (Math.abs(roundedSum - total) > ids.size()) {
+                return false;
+            }
+            long[] amounts;
+            try {
+                amounts = splitAllocator.allocate(total, weights.stream().mapToLong(Long::longValue).toArray());
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                return false;
+            }
+            for (int i = 0; i < amounts.length; i++) {
+                update.setLong(1, amounts[i]);
+                update.setLong(2, ids.get(i));
+                update.addBatch();
+            }
+            return true;
+        }
+    }
+}
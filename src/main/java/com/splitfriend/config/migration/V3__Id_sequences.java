@@ -0,0 +1,56 @@
+package com.splitfriend.config.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Creates the id sequences of tables that used to rely on identity columns. A sequence
+ * starts one allocation block past the highest existing id, so the first block Hibernate's
+ * pooled optimizer hands out cannot collide with old rows.
+ */
+@Component
+public class V3__Id_sequences extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V3__Id_sequences.class);
+
+    /** Must match the allocationSize of the entities' sequence generators. */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String[][] SEQUENCES = {
+            {"EXPENSES", "EXPENSES_SEQ"},
+            {"EXPENSE_SPLITS", "EXPENSE_SPLITS_SEQ"},
+            {"SETTLEMENTS", "SETTLEMENTS_SEQ"}
+    };
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection conn = context.getConnection();
+        for (String[] sequence : SEQUENCES) {
+            createSequence(conn, sequence[0], sequence[1]);
+        }
+    }
+
+    private void createSequence(Connection conn, String table, String sequence) throws SQLException {
+        if (Schema.sequenceExists(conn, sequence)) {
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            long maxId;
+            try (ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(ID), 0) FROM " + table)) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+            log.info("Creating sequence {} after id {}", sequence, maxId);
+            stmt.execute("CREATE SEQUENCE " + sequence + " START WITH " + (maxId + ALLOCATION_SIZE)
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.splitfriend.controller;
 
 import com.splitfriend.dto.BalanceDTO;
 import com.splitfriend.model.Group;
+import com.splitfriend.model.Money;
 import com.splitfriend.model.User;
 import com.splitfriend.security.CustomUserDetailsService;
 import com.splitfriend.service.BalanceService;
@@ -17,7 +18,6 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,19 +46,20 @@ public class DashboardController {
         User user = userDetails.getUser();
         List<Group> groups = groupService.findByUser(user);
 
-        // Calculate balances for each group
-        Map<Long, BigDecimal> groupBalances = new HashMap<>();
-        BigDecimal totalOwed = BigDecimal.ZERO;
-        BigDecimal totalOwing = BigDecimal.ZERO;
+        // Fetch the user's balance in every group at once
+        Map<Long, Money> overallBalances = balanceService.getUserOverallBalances(user.getId());
+        Map<Long, Money> groupBalances = new HashMap<>();
+        Money totalOwed = Money.ZERO;
+        Money totalOwing = Money.ZERO;
 
         for (Group group : groups) {
-            BigDecimal balance = balanceService.getUserBalanceInGroup(group.getId(), user.getId());
+            Money balance = overallBalances.getOrDefault(group.getId(), Money.ZERO);
             groupBalances.put(group.getId(), balance);
 
-            if (balance.compareTo(BigDecimal.ZERO) > 0) {
-                totalOwed = totalOwed.add(balance);
+            if (balance.isPositive()) {
+                totalOwed = totalOwed.plus(balance);
             } else {
-                totalOwing = totalOwing.add(balance.abs());
+                totalOwing = totalOwing.plus(balance.abs());
             }
         }
 
@@ -67,7 +68,7 @@ public class DashboardController {
         model.addAttribute("groupBalances", groupBalances);
         model.addAttribute("totalOwed", totalOwed);
         model.addAttribute("totalOwing", totalOwing);
-        model.addAttribute("netBalance", totalOwed.subtract(totalOwing));
+        model.addAttribute("netBalance", totalOwed.minus(totalOwing));
 
         return "dashboard";
     }
@@ -1,13 +1,14 @@
 package com.splitfriend.controller;
 
 import com.splitfriend.dto.ExpenseDTO;
+import com.splitfriend.dto.ExpenseImportResultDTO;
+import com.splitfriend.dto.UserDTO;
 import com.splitfriend.model.*;
 import com.splitfriend.model.enums.SplitType;
 import com.splitfriend.security.CustomUserDetailsService;
+import com.splitfriend.service.ExpenseImportService;
 import com.splitfriend.service.ExpenseService;
-import com.splitfriend.service.ExportService;
 import com.splitfriend.service.GroupService;
-import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
@@ -29,14 +30,14 @@ public class ExpenseController {
 
     private final ExpenseService expenseService;
     private final GroupService groupService;
-    private final ExportService exportService;
+    private final ExpenseImportService expenseImportService;
 
     public ExpenseController(ExpenseService expenseService,
                             GroupService groupService,
-                            ExportService exportService) {
+                            ExpenseImportService expenseImportService) {
         this.expenseService = expenseService;
         this.groupService = groupService;
-        this.exportService = exportService;
+        this.expenseImportService = expenseImportService;
     }
 
     @GetMapping("/add")
@@ -49,13 +50,13 @@ public class ExpenseController {
             return "redirect:/groups?error=unauthorized";
         }
 
-        Optional<Group> groupOpt = groupService.findByIdWithMembers(groupId);
+        Optional<Group> groupOpt = groupService.findById(groupId);
         if (groupOpt.isEmpty()) {
             return "redirect:/groups?error=notfound";
         }
 
         Group group = groupOpt.get();
-        List<User> members = groupService.getGroupMemberUsers(groupId);
+        List<UserDTO> members = groupService.getMemberSummaries(groupId);
 
         ExpenseDTO expenseDTO = ExpenseDTO.builder()
                 .groupId(groupId)
@@ -90,10 +91,10 @@ public class ExpenseController {
         }
 
         if (result.hasErrors()) {
-            Optional<Group> groupOpt = groupService.findByIdWithMembers(groupId);
+            Optional<Group> groupOpt = groupService.findById(groupId);
             groupOpt.ifPresent(group -> {
                 model.addAttribute("group", group);
-                model.addAttribute("members", groupService.getGroupMemberUsers(groupId));
+                model.addAttribute("members", groupService.getMemberSummaries(groupId));
             });
             model.addAttribute("splitTypes", SplitType.values());
             return "expenses/add";
@@ -106,8 +107,10 @@ public class ExpenseController {
 
         Group group = groupOpt.get();
 
+        List<User> allMembers = groupService.getGroupMemberUsers(groupId);
+
         // Get the payer
-        User payer = groupService.getGroupMemberUsers(groupId).stream()
+        User payer = allMembers.stream()
                 .filter(u -> u.getId().equals(expenseDTO.getPaidById()))
                 .findFirst()
                 .orElse(user);
@@ -115,9 +118,8 @@ public class ExpenseController {
         // Get participants
         List<User> participants;
         if (participantIds == null || participantIds.isEmpty()) {
-            participants = groupService.getGroupMemberUsers(groupId);
+            participants = allMembers;
         } else {
-            List<User> allMembers = groupService.getGroupMemberUsers(groupId);
             participants = allMembers.stream()
                     .filter(u -> participantIds.contains(u.getId()))
                     .collect(Collectors.toList());
@@ -172,6 +174,44 @@ public class ExpenseController {
         }
     }
 
+    @PostMapping("/import")
+    public String importExpenses(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                                 @RequestParam("groupId") Long groupId,
+                                 @RequestParam("file") MultipartFile file,
+                                 RedirectAttributes redirectAttributes) {
+        User user = userDetails.getUser();
+
+        if (!groupService.isUserMember(groupId, user.getId())) {
+            return "redirect:/groups?error=unauthorized";
+        }
+
+        Optional<Group> groupOpt = groupService.findById(groupId);
+        if (groupOpt.isEmpty()) {
+            return "redirect:/groups?error=notfound";
+        }
+
+        if (file.isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "Please choose a file to import");
+            return "redirect:/groups/" + groupId;
+        }
+
+        try {
+            ExpenseImportResultDTO result = expenseImportService.importExpenses(groupOpt.get(), file);
+            if (result.hasErrors()) {
+                String more = result.getRejectedRows() > result.getErrors().size()
+                        ? " (" + (result.getRejectedRows() - result.getErrors().size()) + " more)"
+                        : "";
+                redirectAttributes.addFlashAttribute("error", "Nothing was imported. "
+                        + String.join("; ", result.getErrors()) + more);
+            } else {
+                redirectAttributes.addFlashAttribute("message", result.getImported() + " expenses imported successfully!");
+            }
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("error", "Could not read the file: " + e.getMessage());
+        }
+        return "redirect:/groups/" + groupId;
+    }
+
     @GetMapping("/{id}")
     public String viewExpense(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
                              @PathVariable Long id,
@@ -221,23 +261,4 @@ public class ExpenseController {
         redirectAttributes.addFlashAttribute("message", "Expense deleted successfully");
         return "redirect:/groups/" + groupId;
     }
-
-    @GetMapping("/export")
-    public void exportExpenses(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
-                              @RequestParam("groupId") Long groupId,
-                              HttpServletResponse response) throws IOException {
-        User user = userDetails.getUser();
-
-        if (!groupService.isUserMember(groupId, user.getId())) {
-            response.sendError(403, "Unauthorized");
-            return;
-        }
-
-        List<Expense> expenses = expenseService.findByGroupIdWithSplits(groupId);
-        String csv = exportService.exportExpensesToCsv(expenses);
-
-        response.setContentType("text/csv");
-        response.setHeader("Content-Disposition", "attachment; filename=\"expenses_group_" + groupId + ".csv\"");
-        response.getWriter().write(csv);
-    }
 }
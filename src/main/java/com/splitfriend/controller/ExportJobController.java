@@ -0,0 +1,131 @@
+package com.splitfriend.controller;
+
+import com.splitfriend.model.ExportJob;
+import com.splitfriend.model.User;
+import com.splitfriend.model.enums.ExportJobStatus;
+import com.splitfriend.model.enums.ExportJobType;
+import com.splitfriend.security.CustomUserDetailsService;
+import com.splitfriend.service.ExportJobService;
+import com.splitfriend.service.GroupService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Queues exports, reports their progress and serves the finished files. Exports are written
+ * in the background, so no request thread waits for one.
+ */
+@Controller
+@RequestMapping("/exports")
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+    private final GroupService groupService;
+
+    public ExportJobController(ExportJobService exportJobService, GroupService groupService) {
+        this.exportJobService = exportJobService;
+        this.groupService = groupService;
+    }
+
+    @GetMapping
+    public String listExports(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                              Model model) {
+        model.addAttribute("jobs", exportJobService.findRecentByUser(userDetails.getUser().getId()));
+        return "exports/list";
+    }
+
+    @PostMapping("/group")
+    public String exportGroup(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                              @RequestParam("groupId") Long groupId,
+                              @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                              RedirectAttributes redirectAttributes) {
+        User user = userDetails.getUser();
+
+        if (!groupService.isUserMember(groupId, user.getId())) {
+            return "redirect:/groups?error=unauthorized";
+        }
+
+        exportJobService.submitGroupCsv(user.getId(), groupId, gzip);
+        redirectAttributes.addFlashAttribute("message", "Export started. It will be ready to download here shortly.");
+        return "redirect:/exports";
+    }
+
+    @PostMapping("/account")
+    public String exportAccount(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                                @RequestParam(value = "zip", defaultValue = "false") boolean zip,
+                                RedirectAttributes redirectAttributes) {
+        exportJobService.submitAccountJson(userDetails.getUser().getId(), zip);
+        redirectAttributes.addFlashAttribute("message", "Export started. It will be ready to download here shortly.");
+        return "redirect:/exports";
+    }
+
+    /**
+     * Status of a job, polled by the exports page while it runs.
+     */
+    @GetMapping("/{id}/status")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getStatus(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                                                         @PathVariable Long id) {
+        Optional<ExportJob> jobOpt = exportJobService.findByIdAndUser(id, userDetails.getUser().getId());
+        if (jobOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ExportJob job = jobOpt.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", job.getId());
+        status.put("status", job.getStatus().name());
+        status.put("progress", job.getProgress());
+        status.put("finished", job.getStatus().isFinished());
+        if (job.getStatus() == ExportJobStatus.COMPLETED) {
+            status.put("fileName", job.getFileName());
+            status.put("fileSize", job.getFileSize());
+            status.put("downloadUrl", "/exports/" + job.getId() + "/download");
+        }
+        if (job.getError() != null) {
+            status.put("error", job.getError());
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                                             @PathVariable Long id) {
+        User user = userDetails.getUser();
+        Optional<ExportJob> jobOpt = exportJobService.findByIdAndUser(id, user.getId());
+        if (jobOpt.isEmpty() || jobOpt.get().getStatus() != ExportJobStatus.COMPLETED) {
+            return ResponseEntity.notFound().build();
+        }
+
+        ExportJob job = jobOpt.get();
+        // Members who left the group since requesting the export lose access to it
+        if (job.getType() == ExportJobType.GROUP_CSV && !groupService.isUserMember(job.getGroupId(), user.getId())) {
+            return ResponseEntity.status(403).build();
+        }
+
+        Path file = exportJobService.getFile(job);
+        if (!Files.isRegularFile(file)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -1,23 +1,27 @@
 package com.splitfriend.controller;
 
-import com.splitfriend.dto.BalanceDTO;
 import com.splitfriend.dto.GroupDTO;
+import com.splitfriend.dto.GroupSummaryDTO;
 import com.splitfriend.model.Group;
-import com.splitfriend.model.GroupMember;
 import com.splitfriend.model.User;
 import com.splitfriend.security.CustomUserDetailsService;
-import com.splitfriend.service.BalanceService;
 import com.splitfriend.service.ExpenseService;
+import com.splitfriend.service.GroupPageReadModel;
 import com.splitfriend.service.GroupService;
+import com.splitfriend.service.GroupSummaryService;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,22 +31,25 @@ import java.util.Optional;
 public class GroupController {
 
     private final GroupService groupService;
-    private final BalanceService balanceService;
     private final ExpenseService expenseService;
+    private final GroupPageReadModel groupPageReadModel;
+    private final GroupSummaryService groupSummaryService;
 
     public GroupController(GroupService groupService,
-                          BalanceService balanceService,
-                          ExpenseService expenseService) {
+                          ExpenseService expenseService,
+                          GroupPageReadModel groupPageReadModel,
+                          GroupSummaryService groupSummaryService) {
         this.groupService = groupService;
-        this.balanceService = balanceService;
         this.expenseService = expenseService;
+        this.groupPageReadModel = groupPageReadModel;
+        this.groupSummaryService = groupSummaryService;
     }
 
     @GetMapping
     public String listGroups(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
                             Model model) {
         User user = userDetails.getUser();
-        List<Group> groups = groupService.findByUser(user);
+        List<GroupSummaryDTO> groups = groupSummaryService.findByUserId(user.getId());
         model.addAttribute("groups", groups);
         return "groups/list";
     }
@@ -80,32 +87,50 @@ public class GroupController {
                            Model model) {
         User user = userDetails.getUser();
 
-        Optional<Group> groupOpt = groupService.findByIdWithMembers(id);
-        if (groupOpt.isEmpty()) {
-            return "redirect:/groups?error=notfound";
-        }
-
-        Group group = groupOpt.get();
-
+        // Membership is cached, so the check costs nothing before the page reads start
         if (!groupService.isUserMember(id, user.getId())) {
-            return "redirect:/groups?error=unauthorized";
+            return groupService.findById(id).isPresent()
+                    ? "redirect:/groups?error=unauthorized"
+                    : "redirect:/groups?error=notfound";
         }
 
-        List<GroupMember> members = groupService.getGroupMembers(id);
-        List<BalanceDTO> balances = balanceService.getDetailedBalances(id);
-        List<BalanceDTO.DebtDTO> debts = balanceService.calculateDebts(id);
-        BigDecimal totalExpenses = expenseService.getTotalExpensesByGroup(id);
+        Optional<GroupPageReadModel.GroupPage> page = groupPageReadModel.load(id);
+        if (page.isEmpty()) {
+            return "redirect:/groups?error=notfound";
+        }
 
-        model.addAttribute("group", group);
-        model.addAttribute("members", members);
-        model.addAttribute("balances", balances);
-        model.addAttribute("debts", debts);
-        model.addAttribute("totalExpenses", totalExpenses);
+        model.addAttribute("group", page.get().group());
+        model.addAttribute("groupId", id);
+        model.addAttribute("expenses", page.get().expenses());
+        model.addAttribute("members", page.get().members());
+        model.addAttribute("balances", page.get().balances());
+        model.addAttribute("debts", page.get().debts());
+        model.addAttribute("totalExpenses", page.get().totalExpenses());
         model.addAttribute("currentUserId", user.getId());
 
         return "groups/view";
     }
 
+    /**
+     * Next page of the expense list, rendered as table rows for the group page to append.
+     */
+    @GetMapping("/{id}/expenses")
+    public String expensePage(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
+                              @PathVariable Long id,
+                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreated,
+                              @RequestParam Long after,
+                              Model model) {
+        // Fetched by script, which would append a redirect's page to the table
+        if (!groupService.isUserMember(id, userDetails.getUser().getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+
+        model.addAttribute("groupId", id);
+        model.addAttribute("expenses", expenseService.getExpensePage(id, afterDate, afterCreated, after));
+        return "groups/view :: expenseRows";
+    }
+
     @GetMapping("/{id}/edit")
     public String editGroupForm(@AuthenticationPrincipal CustomUserDetailsService.CustomUserDetails userDetails,
                                @PathVariable Long id,
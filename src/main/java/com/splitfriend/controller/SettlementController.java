@@ -3,11 +3,11 @@ package com.splitfriend.controller;
 import com.splitfriend.dto.BalanceDTO;
 import com.splitfriend.dto.SettlementDTO;
 import com.splitfriend.model.Group;
+import com.splitfriend.model.Money;
 import com.splitfriend.model.Settlement;
 import com.splitfriend.model.User;
 import com.splitfriend.security.CustomUserDetailsService;
 import com.splitfriend.service.BalanceService;
-import com.splitfriend.service.DebtSimplificationService;
 import com.splitfriend.service.GroupService;
 import com.splitfriend.service.SettlementService;
 import jakarta.validation.Valid;
@@ -19,7 +19,6 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,16 +30,13 @@ public class SettlementController {
     private final SettlementService settlementService;
     private final GroupService groupService;
     private final BalanceService balanceService;
-    private final DebtSimplificationService debtSimplificationService;
 
     public SettlementController(SettlementService settlementService,
                                GroupService groupService,
-                               BalanceService balanceService,
-                               DebtSimplificationService debtSimplificationService) {
+                               BalanceService balanceService) {
         this.settlementService = settlementService;
         this.groupService = groupService;
         this.balanceService = balanceService;
-        this.debtSimplificationService = debtSimplificationService;
     }
 
     @GetMapping
@@ -62,19 +58,13 @@ public class SettlementController {
         List<Settlement> settlements = settlementService.findByGroupId(groupId);
         List<BalanceDTO> balances = balanceService.getDetailedBalances(groupId);
 
-        // Calculate simplified debts
-        Map<Long, BigDecimal> balanceMap = balanceService.calculateGroupBalances(groupId);
-        Map<Long, String> userNames = new HashMap<>();
-        for (BalanceDTO balance : balances) {
-            userNames.put(balance.getUserId(), balance.getUserName());
-        }
-        List<BalanceDTO.DebtDTO> simplifiedDebts = debtSimplificationService.simplifyDebts(balanceMap, userNames);
+        List<BalanceDTO.DebtDTO> simplifiedDebts = balanceService.calculateOptimalDebts(groupId);
 
         model.addAttribute("group", group);
         model.addAttribute("settlements", settlements);
         model.addAttribute("balances", balances);
         model.addAttribute("simplifiedDebts", simplifiedDebts);
-        model.addAttribute("members", groupService.getGroupMemberUsers(groupId));
+        model.addAttribute("members", groupService.getMemberSummaries(groupId));
         model.addAttribute("currentUserId", user.getId());
 
         return "settlements/list";
@@ -108,7 +98,8 @@ public class SettlementController {
         }
 
         try {
-            settlementService.createSettlement(groupOpt.get(), fromUser, toUser, amount);
+            Group group = groupOpt.get();
+            settlementService.createSettlement(group, fromUser, toUser, Money.of(amount, group.getCurrency()));
             redirectAttributes.addFlashAttribute("message", "Settlement recorded successfully!");
         } catch (IllegalArgumentException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
@@ -159,16 +150,16 @@ public class SettlementController {
         }
 
         // Calculate how much the current user owes to the toUser
-        Map<Long, BigDecimal> balances = balanceService.calculateGroupBalances(groupId);
-        BigDecimal userBalance = balances.getOrDefault(user.getId(), BigDecimal.ZERO);
+        Map<Long, Money> balances = balanceService.calculateGroupBalances(groupId);
+        Money userBalance = balances.getOrDefault(user.getId(), Money.ZERO);
 
-        if (userBalance.compareTo(BigDecimal.ZERO) >= 0) {
+        if (!userBalance.isNegative()) {
             redirectAttributes.addFlashAttribute("error", "You don't owe anything");
             return "redirect:/settlements?groupId=" + groupId;
         }
 
         // For simplicity, settle the full amount owed
-        BigDecimal amountToSettle = userBalance.abs();
+        Money amountToSettle = userBalance.abs();
 
         Optional<Group> groupOpt = groupService.findById(groupId);
         if (groupOpt.isEmpty()) {
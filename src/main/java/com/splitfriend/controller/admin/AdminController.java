@@ -1,16 +1,23 @@
 package com.splitfriend.controller.admin;
 
+import com.splitfriend.model.Money;
+import com.splitfriend.service.BalanceCache;
+import com.splitfriend.service.BalanceLedgerService;
 import com.splitfriend.service.ExpenseService;
 import com.splitfriend.service.GroupService;
+import com.splitfriend.service.MembershipCache;
+import com.splitfriend.service.SecondLevelCacheService;
 import com.splitfriend.service.SettlementService;
 import com.splitfriend.service.UserService;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 @Controller
 @RequestMapping("/admin")
@@ -21,15 +28,27 @@ public class AdminController {
     private final GroupService groupService;
     private final ExpenseService expenseService;
     private final SettlementService settlementService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final BalanceCache balanceCache;
+    private final MembershipCache membershipCache;
+    private final SecondLevelCacheService secondLevelCacheService;
 
     public AdminController(UserService userService,
                           GroupService groupService,
                           ExpenseService expenseService,
-                          SettlementService settlementService) {
+                          SettlementService settlementService,
+                          BalanceLedgerService balanceLedgerService,
+                          BalanceCache balanceCache,
+                          MembershipCache membershipCache,
+                          SecondLevelCacheService secondLevelCacheService) {
         this.userService = userService;
         this.groupService = groupService;
         this.expenseService = expenseService;
         this.settlementService = settlementService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.balanceCache = balanceCache;
+        this.membershipCache = membershipCache;
+        this.secondLevelCacheService = secondLevelCacheService;
     }
 
     @GetMapping
@@ -39,21 +58,31 @@ public class AdminController {
         long activeUsers = userService.countActiveUsers();
         long totalGroups = groupService.countGroups();
         long totalExpenses = expenseService.countExpenses();
-        BigDecimal totalExpensesAmount = expenseService.getTotalExpensesAmount();
+        Money totalExpensesAmount = expenseService.getTotalExpensesAmount();
         long totalSettlements = settlementService.countSettlements();
-        BigDecimal totalSettledAmount = settlementService.getTotalSettledAmount();
+        Money totalSettledAmount = settlementService.getTotalSettledAmount();
 
         model.addAttribute("totalUsers", totalUsers);
         model.addAttribute("activeUsers", activeUsers);
         model.addAttribute("totalGroups", totalGroups);
         model.addAttribute("totalExpenses", totalExpenses);
-        model.addAttribute("totalExpensesAmount", totalExpensesAmount != null ? totalExpensesAmount : BigDecimal.ZERO);
+        model.addAttribute("totalExpensesAmount", totalExpensesAmount);
         model.addAttribute("totalSettlements", totalSettlements);
-        model.addAttribute("totalSettledAmount", totalSettledAmount != null ? totalSettledAmount : BigDecimal.ZERO);
+        model.addAttribute("totalSettledAmount", totalSettledAmount);
+        model.addAttribute("cacheStats", List.of(balanceCache.getStats(), membershipCache.getStats()));
+        model.addAttribute("entityCacheStats", secondLevelCacheService.getRegionStats());
 
         return "admin/dashboard";
     }
 
+    @PostMapping("/balances/rebuild")
+    public String rebuildBalances(RedirectAttributes redirectAttributes) {
+        int groups = balanceLedgerService.rebuildAll();
+        balanceCache.evictAll();
+        redirectAttributes.addFlashAttribute("message", "Balances rebuilt for " + groups + " groups");
+        return "redirect:/admin";
+    }
+
     @GetMapping("/settings")
     public String settings(Model model) {
         return "admin/settings";
@@ -1,18 +1,20 @@
 package com.splitfriend.controller.admin;
 
 import com.splitfriend.service.BackupService;
+import com.splitfriend.util.FileDownloads;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 @Controller
@@ -47,6 +49,7 @@ public class BackupController {
         model.addAttribute("autoBackupEnabled", autoBackupEnabled);
         model.addAttribute("backupSchedule", formatCronExpression(backupCron));
         model.addAttribute("maxBackups", maxBackups);
+        model.addAttribute("lastReport", backupService.getLastReport());
 
         return "admin/backup";
     }
@@ -83,47 +86,54 @@ public class BackupController {
     @PostMapping("/create")
     public String createBackup(RedirectAttributes redirectAttributes) {
         try {
-            backupService.createBackup();
-            redirectAttributes.addFlashAttribute("message", "Backup created successfully!");
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("error", "Failed to create backup: " + e.getMessage());
+            backupService.startBackup("manual");
+            redirectAttributes.addFlashAttribute("message",
+                    "Backup started in the background. Refresh this page to see it when it is done.");
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("error", "A backup is already in progress, please try again later");
         }
         return "redirect:/admin/backup";
     }
 
+    /**
+     * Creates a backup, then sends the browser to its download URL so that the download
+     * can be resumed like that of any saved backup.
+     */
     @GetMapping("/download")
-    public ResponseEntity<byte[]> downloadNewBackup() {
+    public String downloadNewBackup(RedirectAttributes redirectAttributes) {
         try {
-            byte[] backup = backupService.createBackupForDownload();
-            String filename = "splitfriend_backup_" +
-                    LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".sql";
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .body(backup);
+            Path backup = backupService.createBackupAndWait("download");
+            return "redirect:/admin/backup/download/" + backup.getFileName();
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addFlashAttribute("error", "A backup is already in progress, please try again later");
         } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+            redirectAttributes.addFlashAttribute("error", "Failed to create backup: " + e.getMessage());
         }
+        return "redirect:/admin/backup";
     }
 
+    /**
+     * Streams a saved backup from disk, with Range, ETag and Content-Length support.
+     */
     @GetMapping("/download/{filename}")
-    public ResponseEntity<byte[]> downloadExistingBackup(@PathVariable String filename) {
-        try {
-            // Validate filename to prevent path traversal
-            if (filename.contains("..") || filename.contains("/") || filename.contains("\\")) {
-                return ResponseEntity.badRequest().build();
-            }
-
-            byte[] backup = backupService.downloadBackup(filename);
+    public void downloadExistingBackup(@PathVariable String filename,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        // Validate filename to prevent path traversal
+        if (filename.contains("..") || filename.contains("/") || filename.contains("\\")) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .body(backup);
+        Path backup;
+        try {
+            backup = backupService.getBackupFile(filename);
         } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+
+        FileDownloads.send(request, response, backup, MediaType.APPLICATION_OCTET_STREAM_VALUE, filename);
     }
 
     @PostMapping("/restore")
@@ -0,0 +1,38 @@
+package com.splitfriend.controller.admin;
+
+import com.splitfriend.service.SqlMonitorService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+@Controller
+@RequestMapping("/admin/sql")
+@PreAuthorize("hasRole('ADMIN')")
+public class SqlMonitorController {
+
+    private final SqlMonitorService sqlMonitorService;
+
+    public SqlMonitorController(SqlMonitorService sqlMonitorService) {
+        this.sqlMonitorService = sqlMonitorService;
+    }
+
+    @GetMapping
+    public String sqlPage(Model model) {
+        model.addAttribute("monitorEnabled", sqlMonitorService.isEnabled());
+        model.addAttribute("warnStatements", sqlMonitorService.getWarnStatements());
+        model.addAttribute("repeatThreshold", sqlMonitorService.getRepeatThreshold());
+        model.addAttribute("endpoints", sqlMonitorService.getEndpointStats());
+        return "admin/sql";
+    }
+
+    @PostMapping("/reset")
+    public String reset(RedirectAttributes redirectAttributes) {
+        sqlMonitorService.reset();
+        redirectAttributes.addFlashAttribute("message", "SQL statistics reset");
+        return "redirect:/admin/sql";
+    }
+}
@@ -115,8 +115,12 @@ public class UserManagementController {
             return "redirect:/admin/users";
         }
 
-        userService.deleteUser(id);
-        redirectAttributes.addFlashAttribute("message", "User deleted successfully");
+        try {
+            userService.deleteUser(id);
+            redirectAttributes.addFlashAttribute("message", "User deleted successfully");
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+        }
         return "redirect:/admin/users";
     }
 
@@ -0,0 +1,32 @@
+package com.splitfriend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BackupReportDTO {
+    private String filename;
+    /** "manual", "scheduled" or "download". */
+    private String trigger;
+    private LocalDateTime startedAt;
+    private long durationMillis;
+    /** Size of the SQL script before compression. */
+    private long scriptBytes;
+    /** Size of the file written. */
+    private long fileBytes;
+    /** Null when the backup succeeded. */
+    private String error;
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+
+    public double getCompressionRatio() {
+        return fileBytes == 0 ? 0.0 : (double) scriptBytes / fileBytes;
+    }
+}
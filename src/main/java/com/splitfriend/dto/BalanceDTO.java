@@ -1,11 +1,10 @@
 package com.splitfriend.dto;
 
+import com.splitfriend.model.Money;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,22 +12,22 @@ public class BalanceDTO {
     private Long userId;
     private String userName;
     private String userEmail;
-    private BigDecimal balance;
+    private Money balance;
 
     public boolean isPositive() {
-        return balance != null && balance.compareTo(BigDecimal.ZERO) > 0;
+        return balance != null && balance.isPositive();
     }
 
     public boolean isNegative() {
-        return balance != null && balance.compareTo(BigDecimal.ZERO) < 0;
+        return balance != null && balance.isNegative();
     }
 
     public boolean isZero() {
-        return balance == null || balance.compareTo(BigDecimal.ZERO) == 0;
+        return balance == null || balance.isZero();
     }
 
-    public BigDecimal getAbsoluteBalance() {
-        return balance != null ? balance.abs() : BigDecimal.ZERO;
+    public Money getAbsoluteBalance() {
+        return balance != null ? balance.abs() : Money.ZERO;
     }
 
     @Data
@@ -39,6 +38,6 @@ public class BalanceDTO {
         private String fromUserName;
         private Long toUserId;
         private String toUserName;
-        private BigDecimal amount;
+        private Money amount;
     }
 }
@@ -0,0 +1,27 @@
+package com.splitfriend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointSqlStatsDTO {
+    private String endpoint;
+    private long requests;
+    private long totalStatements;
+    private int maxStatements;
+    private long totalJdbcMillis;
+    private long flaggedRequests;
+    private int maxRepeats;
+    private String repeatedStatement;
+
+    public double getAverageStatements() {
+        return requests == 0 ? 0.0 : (double) totalStatements / requests;
+    }
+
+    public double getAverageJdbcMillis() {
+        return requests == 0 ? 0.0 : (double) totalJdbcMillis / requests;
+    }
+}
@@ -0,0 +1,29 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import com.splitfriend.model.enums.SplitType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * An expense as written to the account export. Its splits are loaded separately, one page at a time.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseExportDTO {
+    private Long id;
+    private Long groupId;
+    private String groupName;
+    private String description;
+    private Money amount;
+    private LocalDate expenseDate;
+    private SplitType splitType;
+    private Long paidById;
+    private String paidByName;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import com.splitfriend.model.enums.SplitType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One split of an expense, flattened for export. An expense without splits
+ * gives a single row with null participant fields.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseExportRow {
+    private Long expenseId;
+    private LocalDate expenseDate;
+    private String description;
+    private Money amount;
+    private String paidByName;
+    private SplitType splitType;
+    private String participantName;
+    private Money splitAmount;
+    private BigDecimal splitPercentage;
+    private Integer splitShares;
+}
@@ -0,0 +1,22 @@
+package com.splitfriend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseImportResultDTO {
+    /** Expenses saved; 0 whenever any row was rejected. */
+    private int imported;
+    private int rejectedRows;
+    /** Messages of the first rejected rows. */
+    private List<String> errors;
+
+    public boolean hasErrors() {
+        return rejectedRows > 0;
+    }
+}
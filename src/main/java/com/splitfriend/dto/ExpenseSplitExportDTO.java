@@ -0,0 +1,20 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseSplitExportDTO {
+    private Long expenseId;
+    private Long userId;
+    private String userName;
+    private Money amount;
+    private BigDecimal percentage;
+    private Integer shares;
+}
@@ -0,0 +1,24 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a group's expense list, with the payer's name joined in by the query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseSummaryDTO {
+    private Long id;
+    private String description;
+    private Money amount;
+    private LocalDate expenseDate;
+    private LocalDateTime createdAt;
+    private String paidByName;
+}
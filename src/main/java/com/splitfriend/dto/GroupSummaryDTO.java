@@ -0,0 +1,25 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A group as shown in the groups list, with its running totals.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupSummaryDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private String currency;
+    private Money totalSpent;
+    private long expenseCount;
+    private long settlementCount;
+    private LocalDateTime lastActivityAt;
+}
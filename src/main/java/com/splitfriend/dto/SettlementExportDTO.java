@@ -0,0 +1,23 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementExportDTO {
+    private Long id;
+    private Long groupId;
+    private String groupName;
+    private Long fromUserId;
+    private String fromUserName;
+    private Long toUserId;
+    private String toUserName;
+    private Money amount;
+    private LocalDateTime settledAt;
+}
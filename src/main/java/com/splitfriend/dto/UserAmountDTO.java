@@ -0,0 +1,17 @@
+package com.splitfriend.dto;
+
+import com.splitfriend.model.Money;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * A per-user amount produced by a projection query.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAmountDTO {
+    private Long userId;
+    private Money amount;
+}
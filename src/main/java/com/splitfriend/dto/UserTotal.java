@@ -0,0 +1,9 @@
+package com.splitfriend.dto;
+
+/**
+ * A per-user total in minor units, produced by a native aggregate (GROUP BY) query.
+ */
+public interface UserTotal {
+    Long getUserId();
+    Long getTotal();
+}
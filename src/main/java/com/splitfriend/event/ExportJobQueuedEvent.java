@@ -0,0 +1,7 @@
+package com.splitfriend.event;
+
+/**
+ * Published when an export job has been saved and is waiting for a worker.
+ */
+public record ExportJobQueuedEvent(Long jobId) {
+}
@@ -0,0 +1,7 @@
+package com.splitfriend.event;
+
+/**
+ * Published when expenses, splits or settlements of a group are written or deleted.
+ */
+public record GroupBalancesChangedEvent(Long groupId) {
+}
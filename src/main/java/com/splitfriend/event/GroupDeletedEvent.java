@@ -0,0 +1,7 @@
+package com.splitfriend.event;
+
+/**
+ * Published when a group and everything in it has been deleted.
+ */
+public record GroupDeletedEvent(Long groupId) {
+}
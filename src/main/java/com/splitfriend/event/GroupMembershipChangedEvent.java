@@ -0,0 +1,8 @@
+package com.splitfriend.event;
+
+/**
+ * Published when a user joins or leaves a group, or when the group itself is deleted.
+ * {@code userId} is null when the whole group is affected.
+ */
+public record GroupMembershipChangedEvent(Long groupId, Long userId) {
+}
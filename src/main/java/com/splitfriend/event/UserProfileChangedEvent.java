@@ -0,0 +1,7 @@
+package com.splitfriend.event;
+
+/**
+ * Published when a user's profile is updated or the user is deleted.
+ */
+public record UserProfileChangedEvent(Long userId) {
+}
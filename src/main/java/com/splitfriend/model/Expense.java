@@ -4,13 +4,11 @@ import com.splitfriend.model.enums.SplitType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -25,7 +23,8 @@ import java.util.List;
 public class Expense {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -41,9 +40,8 @@ public class Expense {
     private String description;
 
     @NotNull
-    @Positive
-    @Column(precision = 19, scale = 4, nullable = false)
-    private BigDecimal amount;
+    @Column(nullable = false)
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(name = "split_type", nullable = false)
@@ -18,7 +18,8 @@ import java.math.BigDecimal;
 public class ExpenseSplit {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_splits_seq")
+    @SequenceGenerator(name = "expense_splits_seq", sequenceName = "expense_splits_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,8 +31,8 @@ public class ExpenseSplit {
     private User user;
 
     @NotNull
-    @Column(precision = 19, scale = 4, nullable = false)
-    private BigDecimal amount;
+    @Column(nullable = false)
+    private Money amount;
 
     @Column(precision = 5, scale = 2)
     private BigDecimal percentage;
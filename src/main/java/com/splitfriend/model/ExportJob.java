@@ -0,0 +1,90 @@
+package com.splitfriend.model;
+
+import com.splitfriend.model.enums.ExportJobStatus;
+import com.splitfriend.model.enums.ExportJobType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An export requested by a user and run in the background by
+ * {@link com.splitfriend.service.ExportJobRunner}. The file is written under the upload path
+ * and removed, together with the job, once {@code expiresAt} has passed.
+ */
+@Entity
+@Table(name = "export_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    /** The exported group, for {@link ExportJobType#GROUP_CSV} jobs. */
+    @Column(name = "group_id", updatable = false)
+    private Long groupId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20, updatable = false)
+    private ExportJobType type;
+
+    @Column(nullable = false, updatable = false)
+    private boolean compressed;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private ExportJobStatus status = ExportJobStatus.QUEUED;
+
+    /** Percentage written so far, 0 to 100. */
+    @Column(nullable = false)
+    private int progress;
+
+    /** Name the file is downloaded as. */
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    /** File extension of the artifact, without the leading dot. */
+    public String getExtension() {
+        if (type == ExportJobType.GROUP_CSV) {
+            return compressed ? "csv.gz" : "csv";
+        }
+        return compressed ? "zip" : "json";
+    }
+
+    public String getContentType() {
+        if (type == ExportJobType.GROUP_CSV) {
+            return compressed ? "application/gzip" : "text/csv;charset=UTF-8";
+        }
+        return compressed ? "application/zip" : "application/json;charset=UTF-8";
+    }
+}
@@ -0,0 +1,41 @@
+package com.splitfriend.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+/**
+ * Running balance of a user inside a group. Maintained incrementally by
+ * {@link com.splitfriend.service.BalanceLedgerService} whenever expenses or
+ * settlements are written, so reading a group's balances costs one row per member.
+ */
+@Entity
+@Table(name = "group_balances", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"group_id", "user_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @NotNull
+    @Column(nullable = false)
+    @Builder.Default
+    private Money balance = Money.ZERO;
+}
@@ -0,0 +1,41 @@
+package com.splitfriend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a group. Maintained incrementally by
+ * {@link com.splitfriend.service.GroupSummaryService} whenever expenses or settlements
+ * are written, so showing them costs one row per group.
+ */
+@Entity
+@Table(name = "group_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupSummary {
+
+    @Id
+    @Column(name = "group_id")
+    private Long groupId;
+
+    @Column(name = "total_spent", nullable = false)
+    @Builder.Default
+    private Money totalSpent = Money.ZERO;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+
+    @Column(name = "settlement_count", nullable = false)
+    private long settlementCount;
+
+    @Column(name = "last_activity_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime lastActivityAt = LocalDateTime.now();
+}
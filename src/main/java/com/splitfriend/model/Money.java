@@ -0,0 +1,118 @@
+package com.splitfriend.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * An amount of money held as a whole number of hundredths. Every supported currency uses
+ * the same minor unit so a single BIGINT column fits them all; currencies with fewer
+ * decimals, such as JPY, are rounded to their own precision when amounts are created.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Rounds the amount to the precision of the given currency.
+     */
+    public static Money of(BigDecimal amount, String currencyCode) {
+        return of(amount.setScale(fractionDigits(currencyCode), RoundingMode.HALF_UP));
+    }
+
+    /**
+     * The smallest amount that can be paid in the currency, in minor units:
+     * 1 for currencies with cents, 100 for currencies without decimals.
+     */
+    public static long unit(String currencyCode) {
+        return BigDecimal.ONE.movePointRight(SCALE - fractionDigits(currencyCode)).longValueExact();
+    }
+
+    private static int fractionDigits(String currencyCode) {
+        if (currencyCode == null) {
+            return SCALE;
+        }
+        try {
+            int digits = Currency.getInstance(currencyCode).getDefaultFractionDigits();
+            return digits < 0 ? SCALE : Math.min(digits, SCALE);
+        } catch (IllegalArgumentException e) {
+            return SCALE;
+        }
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal getValue() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinorUnits(-minorUnits);
+    }
+
+    public Money abs() {
+        return minorUnits < 0 ? negate() : this;
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return getValue().toPlainString();
+    }
+}
@@ -2,13 +2,11 @@ package com.splitfriend.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Positive;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -20,7 +18,8 @@ import java.time.LocalDateTime;
 public class Settlement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlements_seq")
+    @SequenceGenerator(name = "settlements_seq", sequenceName = "settlements_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,9 +35,8 @@ public class Settlement {
     private User toUser;
 
     @NotNull
-    @Positive
-    @Column(precision = 19, scale = 4, nullable = false)
-    private BigDecimal amount;
+    @Column(nullable = false)
+    private Money amount;
 
     @Column(name = "settled_at", nullable = false, updatable = false)
     @Builder.Default
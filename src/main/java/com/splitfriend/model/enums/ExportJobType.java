@@ -0,0 +1,6 @@
+package com.splitfriend.model.enums;
+
+public enum ExportJobType {
+    GROUP_CSV,
+    ACCOUNT_JSON
+}
@@ -1,15 +1,26 @@
 package com.splitfriend.repository;
 
+import com.splitfriend.dto.ExpenseExportDTO;
+import com.splitfriend.dto.ExpenseExportRow;
+import com.splitfriend.dto.ExpenseSummaryDTO;
+import com.splitfriend.dto.UserTotal;
 import com.splitfriend.model.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
@@ -17,17 +28,50 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId ORDER BY e.expenseDate DESC, e.createdAt DESC")
     List<Expense> findByGroupId(@Param("groupId") Long groupId);
 
-    @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.splits s LEFT JOIN FETCH s.user WHERE e.id = :id")
+    @Query("SELECT new com.splitfriend.dto.ExpenseSummaryDTO(e.id, e.description, e.amount, e.expenseDate, e.createdAt, p.name) " +
+           "FROM Expense e JOIN e.paidBy p WHERE e.group.id = :groupId " +
+           "ORDER BY e.expenseDate DESC, e.createdAt DESC, e.id DESC")
+    Slice<ExpenseSummaryDTO> findSummariesByGroupId(@Param("groupId") Long groupId, Pageable pageable);
+
+    /**
+     * Keyset page: the expenses that come after the given sort key in the list order. The key
+     * is that of the previous page's last row, so the page stays correct if that row is deleted.
+     */
+    @Query("SELECT new com.splitfriend.dto.ExpenseSummaryDTO(e.id, e.description, e.amount, e.expenseDate, e.createdAt, p.name) " +
+           "FROM Expense e JOIN e.paidBy p WHERE e.group.id = :groupId " +
+           "AND (e.expenseDate < :afterDate OR (e.expenseDate = :afterDate " +
+           "AND (e.createdAt < :afterCreatedAt OR (e.createdAt = :afterCreatedAt AND e.id < :afterId)))) " +
+           "ORDER BY e.expenseDate DESC, e.createdAt DESC, e.id DESC")
+    Slice<ExpenseSummaryDTO> findSummariesByGroupIdAfter(@Param("groupId") Long groupId,
+                                                         @Param("afterDate") LocalDate afterDate,
+                                                         @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy JOIN FETCH e.group " +
+           "LEFT JOIN FETCH e.splits s LEFT JOIN FETCH s.user WHERE e.id = :id")
     Optional<Expense> findByIdWithSplits(@Param("id") Long id);
 
-    @Query("SELECT e FROM Expense e LEFT JOIN FETCH e.splits WHERE e.group.id = :groupId ORDER BY e.expenseDate DESC")
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy LEFT JOIN FETCH e.splits s LEFT JOIN FETCH s.user " +
+           "WHERE e.group.id = :groupId ORDER BY e.expenseDate DESC")
     List<Expense> findByGroupIdWithSplits(@Param("groupId") Long groupId);
 
+    /**
+     * Streams a group's expenses one split per row, newest expense first, with the rows of
+     * an expense adjacent. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.splitfriend.dto.ExpenseExportRow(e.id, e.expenseDate, e.description, e.amount, " +
+           "p.name, e.splitType, u.name, s.amount, s.percentage, s.shares) " +
+           "FROM Expense e JOIN e.paidBy p LEFT JOIN e.splits s LEFT JOIN s.user u " +
+           "WHERE e.group.id = :groupId ORDER BY e.expenseDate DESC, e.createdAt DESC, e.id DESC, s.id")
+    Stream<ExpenseExportRow> streamExportRowsByGroupId(@Param("groupId") Long groupId);
+
     @Query("SELECT e FROM Expense e WHERE e.paidBy.id = :userId ORDER BY e.expenseDate DESC")
     List<Expense> findByPaidByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.group.id = :groupId")
-    BigDecimal getTotalExpensesByGroupId(@Param("groupId") Long groupId);
+    @Query(value = "SELECT e.paid_by AS userId, CAST(SUM(e.amount) AS BIGINT) AS total FROM expenses e WHERE e.group_id = :groupId GROUP BY e.paid_by", nativeQuery = true)
+    List<UserTotal> sumPaidByUserInGroup(@Param("groupId") Long groupId);
 
     @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId AND e.expenseDate BETWEEN :startDate AND :endDate ORDER BY e.expenseDate DESC")
     List<Expense> findByGroupIdAndDateRange(
@@ -38,9 +82,28 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     @Query("SELECT COUNT(e) FROM Expense e")
     long countExpenses();
 
-    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e")
-    BigDecimal getTotalExpensesAmount();
+    @Query(value = "SELECT CAST(COALESCE(SUM(e.amount), 0) AS BIGINT) FROM expenses e", nativeQuery = true)
+    long getTotalExpensesAmount();
+
+    /**
+     * Keyset page of the expenses a user paid or has a share in, in id order.
+     * @param afterId the last id of the previous page, or 0 for the first page
+     */
+    @Query("SELECT new com.splitfriend.dto.ExpenseExportDTO(e.id, g.id, g.name, e.description, e.amount, " +
+           "e.expenseDate, e.splitType, p.id, p.name, e.createdAt) " +
+           "FROM Expense e JOIN e.group g JOIN e.paidBy p " +
+           "WHERE e.id > :afterId AND (p.id = :userId " +
+           "OR e.id IN (SELECT s.expense.id FROM ExpenseSplit s WHERE s.user.id = :userId AND s.expense.id > :afterId)) " +
+           "ORDER BY e.id")
+    Slice<ExpenseExportDTO> findExpensesInvolvingUser(@Param("userId") Long userId,
+                                                      @Param("afterId") Long afterId,
+                                                      Pageable pageable);
+
+    @Query("SELECT COUNT(e) FROM Expense e WHERE e.paidBy.id = :userId " +
+           "OR e.id IN (SELECT s.expense.id FROM ExpenseSplit s WHERE s.user.id = :userId)")
+    long countExpensesInvolvingUser(@Param("userId") Long userId);
 
-    @Query("SELECT e FROM Expense e JOIN e.splits s WHERE s.user.id = :userId ORDER BY e.expenseDate DESC")
-    List<Expense> findExpensesInvolvingUser(@Param("userId") Long userId);
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.group.id = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
 }
@@ -1,12 +1,15 @@
 package com.splitfriend.repository;
 
+import com.splitfriend.dto.ExpenseSplitExportDTO;
+import com.splitfriend.dto.UserTotal;
 import com.splitfriend.model.ExpenseSplit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,15 +17,26 @@ public interface ExpenseSplitRepository extends JpaRepository<ExpenseSplit, Long
 
     List<ExpenseSplit> findByExpenseId(Long expenseId);
 
+    @Query("SELECT new com.splitfriend.dto.ExpenseSplitExportDTO(es.expense.id, u.id, u.name, es.amount, es.percentage, es.shares) " +
+           "FROM ExpenseSplit es JOIN es.user u WHERE es.expense.id IN :expenseIds ORDER BY es.expense.id, es.id")
+    List<ExpenseSplitExportDTO> findExportRowsByExpenseIds(@Param("expenseIds") Collection<Long> expenseIds);
+
     @Query("SELECT es FROM ExpenseSplit es WHERE es.user.id = :userId")
     List<ExpenseSplit> findByUserId(@Param("userId") Long userId);
 
     @Query("SELECT es FROM ExpenseSplit es JOIN es.expense e WHERE e.group.id = :groupId AND es.user.id = :userId")
     List<ExpenseSplit> findByGroupIdAndUserId(@Param("groupId") Long groupId, @Param("userId") Long userId);
 
-    @Query("SELECT COALESCE(SUM(es.amount), 0) FROM ExpenseSplit es WHERE es.user.id = :userId")
-    BigDecimal getTotalOwedByUser(@Param("userId") Long userId);
+    @Query(value = "SELECT CAST(COALESCE(SUM(es.amount), 0) AS BIGINT) FROM expense_splits es WHERE es.user_id = :userId", nativeQuery = true)
+    long getTotalOwedByUser(@Param("userId") Long userId);
+
+    @Query(value = "SELECT CAST(COALESCE(SUM(es.amount), 0) AS BIGINT) FROM expense_splits es JOIN expenses e ON e.id = es.expense_id WHERE e.group_id = :groupId AND es.user_id = :userId", nativeQuery = true)
+    long getTotalOwedByUserInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    @Query(value = "SELECT es.user_id AS userId, CAST(SUM(es.amount) AS BIGINT) AS total FROM expense_splits es JOIN expenses e ON e.id = es.expense_id WHERE e.group_id = :groupId GROUP BY es.user_id", nativeQuery = true)
+    List<UserTotal> sumOwedByUserInGroup(@Param("groupId") Long groupId);
 
-    @Query("SELECT COALESCE(SUM(es.amount), 0) FROM ExpenseSplit es JOIN es.expense e WHERE e.group.id = :groupId AND es.user.id = :userId")
-    BigDecimal getTotalOwedByUserInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+    @Modifying
+    @Query("DELETE FROM ExpenseSplit es WHERE es.expense.id IN (SELECT e.id FROM Expense e WHERE e.group.id = :groupId)")
+    int deleteByGroupId(@Param("groupId") Long groupId);
 }
@@ -0,0 +1,85 @@
+package com.splitfriend.repository;
+
+import com.splitfriend.model.ExportJob;
+import com.splitfriend.model.enums.ExportJobStatus;
+import com.splitfriend.model.enums.ExportJobType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, Long> {
+
+    List<ExportJob> findTop20ByUserIdOrderByIdDesc(Long userId);
+
+    Optional<ExportJob> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Unfinished jobs of a user producing the same file, so a repeated request can reuse one.
+     */
+    @Query("SELECT j FROM ExportJob j WHERE j.userId = :userId AND j.type = :type " +
+           "AND (j.groupId = :groupId OR (:groupId IS NULL AND j.groupId IS NULL)) " +
+           "AND j.compressed = :compressed AND j.status IN :statuses ORDER BY j.id DESC")
+    List<ExportJob> findMatching(@Param("userId") Long userId,
+                                 @Param("type") ExportJobType type,
+                                 @Param("groupId") Long groupId,
+                                 @Param("compressed") boolean compressed,
+                                 @Param("statuses") Collection<ExportJobStatus> statuses);
+
+    @Query("SELECT j.id FROM ExportJob j WHERE j.status = :status ORDER BY j.id")
+    List<Long> findIdsByStatus(@Param("status") ExportJobStatus status);
+
+    @Query("SELECT j FROM ExportJob j WHERE j.expiresAt < :now")
+    List<ExportJob> findExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Claims a queued job for a worker.
+     * @return 1 if the job was queued and is now running, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = :running, j.startedAt = :at " +
+           "WHERE j.id = :id AND j.status = :queued")
+    int markRunning(@Param("id") Long id, @Param("at") LocalDateTime at,
+                    @Param("queued") ExportJobStatus queued, @Param("running") ExportJobStatus running);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.progress = :progress WHERE j.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("progress") int progress);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = :status, j.progress = 100, j.fileName = :fileName, " +
+           "j.fileSize = :fileSize, j.completedAt = :at, j.expiresAt = :expiresAt WHERE j.id = :id")
+    int markCompleted(@Param("id") Long id, @Param("fileName") String fileName, @Param("fileSize") long fileSize,
+                      @Param("at") LocalDateTime at, @Param("expiresAt") LocalDateTime expiresAt,
+                      @Param("status") ExportJobStatus status);
+
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = :status, j.error = :error, " +
+           "j.completedAt = :at, j.expiresAt = :expiresAt WHERE j.id = :id")
+    int markFailed(@Param("id") Long id, @Param("error") String error,
+                   @Param("at") LocalDateTime at, @Param("expiresAt") LocalDateTime expiresAt,
+                   @Param("status") ExportJobStatus status);
+
+    /**
+     * Puts jobs left queued or running by a previous shutdown back in the queue.
+     */
+    @Modifying
+    @Query("UPDATE ExportJob j SET j.status = :queued, j.progress = 0, j.startedAt = NULL " +
+           "WHERE j.status IN :statuses")
+    int requeue(@Param("statuses") Collection<ExportJobStatus> statuses, @Param("queued") ExportJobStatus queued);
+
+    @Modifying
+    @Query("DELETE FROM ExportJob j WHERE j.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM ExportJob j WHERE j.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,30 @@
+package com.splitfriend.repository;
+
+import com.splitfriend.dto.GroupAmountDTO;
+import com.splitfriend.dto.UserAmountDTO;
+import com.splitfriend.model.GroupBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GroupBalanceRepository extends JpaRepository<GroupBalance, Long> {
+
+    @Query("SELECT new com.splitfriend.dto.UserAmountDTO(gb.user.id, gb.balance) FROM GroupBalance gb WHERE gb.group.id = :groupId")
+    List<UserAmountDTO> findBalancesByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.splitfriend.dto.GroupAmountDTO(gb.group.id, gb.balance) FROM GroupBalance gb WHERE gb.user.id = :userId")
+    List<GroupAmountDTO> findBalancesByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM GroupBalance gb WHERE gb.group.id = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM GroupBalance gb WHERE gb.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,7 +1,9 @@
 package com.splitfriend.repository;
 
+import com.splitfriend.dto.UserDTO;
 import com.splitfriend.model.GroupMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,10 +20,28 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     @Query("SELECT gm FROM GroupMember gm JOIN FETCH gm.user WHERE gm.group.id = :groupId")
     List<GroupMember> findByGroupIdWithUser(@Param("groupId") Long groupId);
 
+    @Query("SELECT new com.splitfriend.dto.UserDTO(u.id, u.email, u.name) FROM GroupMember gm JOIN gm.user u " +
+           "WHERE gm.group.id = :groupId ORDER BY u.name, u.id")
+    List<UserDTO> findMemberSummaries(@Param("groupId") Long groupId);
+
     boolean existsByGroupIdAndUserId(Long groupId, Long userId);
 
     void deleteByGroupIdAndUserId(Long groupId, Long userId);
 
     @Query("SELECT COUNT(gm) FROM GroupMember gm WHERE gm.group.id = :groupId")
     long countByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT gm.user.id FROM GroupMember gm WHERE gm.group.id = :groupId")
+    List<Long> findUserIdsByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT gm.group.id FROM GroupMember gm WHERE gm.user.id = :userId")
+    List<Long> findGroupIdsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM GroupMember gm WHERE gm.group.id = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query("DELETE FROM GroupMember gm WHERE gm.user.id = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
 }
@@ -1,8 +1,12 @@
 package com.splitfriend.repository;
 
 import com.splitfriend.model.Group;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +16,7 @@ import java.util.Optional;
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT g FROM Group g JOIN g.members m WHERE m.user.id = :userId ORDER BY g.createdAt DESC")
     List<Group> findByUserId(@Param("userId") Long userId);
 
@@ -24,8 +29,18 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     @Query("SELECT COUNT(g) FROM Group g")
     long countGroups();
 
+    @Query("SELECT g.id FROM Group g")
+    List<Long> findAllIds();
+
     @Query("SELECT CASE WHEN COUNT(m) > 0 THEN true ELSE false END FROM GroupMember m WHERE m.group.id = :groupId AND m.user.id = :userId")
     boolean isUserMemberOfGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
 
     List<Group> findByCreatedById(Long userId);
+
+    /**
+     * Deletes the group row only. Its children must already be gone, see {@code GroupService.deleteGroup}.
+     */
+    @Modifying
+    @Query("DELETE FROM Group g WHERE g.id = :groupId")
+    int deleteRowById(@Param("groupId") Long groupId);
 }
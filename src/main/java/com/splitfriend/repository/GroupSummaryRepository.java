@@ -0,0 +1,87 @@
+package com.splitfriend.repository;
+
+import com.splitfriend.dto.GroupSummaryDTO;
+import com.splitfriend.model.GroupSummary;
+import com.splitfriend.model.Money;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface GroupSummaryRepository extends JpaRepository<GroupSummary, Long> {
+
+    @Query("SELECT new com.splitfriend.dto.GroupSummaryDTO(g.id, g.name, g.description, g.currency, " +
+           "s.totalSpent, s.expenseCount, s.settlementCount, s.lastActivityAt) " +
+           "FROM GroupMember m JOIN m.group g JOIN GroupSummary s ON s.groupId = g.id " +
+           "WHERE m.user.id = :userId ORDER BY g.createdAt DESC")
+    List<GroupSummaryDTO> findByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT s.totalSpent FROM GroupSummary s WHERE s.groupId = :groupId")
+    Optional<Money> findTotalSpent(@Param("groupId") Long groupId);
+
+    // Without a declared query space Hibernate would clear every second-level cache region
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "group_summaries"))
+    @Query(value = "INSERT INTO group_summaries (group_id, total_spent, expense_count, settlement_count, last_activity_at) " +
+                   "VALUES (:groupId, 0, 0, 0, :at)", nativeQuery = true)
+    int createEmpty(@Param("groupId") Long groupId, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "group_summaries"))
+    @Query(value = "UPDATE group_summaries SET total_spent = total_spent + :amount, " +
+                   "expense_count = expense_count + :count, " +
+                   "last_activity_at = GREATEST(last_activity_at, :at) WHERE group_id = :groupId", nativeQuery = true)
+    int addExpenses(@Param("groupId") Long groupId, @Param("amount") long amount,
+                    @Param("count") long count, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "group_summaries"))
+    @Query(value = "UPDATE group_summaries SET settlement_count = settlement_count + :count, " +
+                   "last_activity_at = GREATEST(last_activity_at, :at) WHERE group_id = :groupId", nativeQuery = true)
+    int addSettlements(@Param("groupId") Long groupId, @Param("count") long count, @Param("at") LocalDateTime at);
+
+    /**
+     * Recomputes the counters of every group whose stored values differ from its rows.
+     * @return the number of groups corrected
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "group_summaries"))
+    @Query(value = "UPDATE group_summaries gs SET " +
+                   "total_spent = (SELECT COALESCE(SUM(e.amount), 0) FROM expenses e WHERE e.group_id = gs.group_id), " +
+                   "expense_count = (SELECT COUNT(*) FROM expenses e WHERE e.group_id = gs.group_id), " +
+                   "settlement_count = (SELECT COUNT(*) FROM settlements s WHERE s.group_id = gs.group_id) " +
+                   "WHERE gs.total_spent <> (SELECT COALESCE(SUM(e.amount), 0) FROM expenses e WHERE e.group_id = gs.group_id) " +
+                   "OR gs.expense_count <> (SELECT COUNT(*) FROM expenses e WHERE e.group_id = gs.group_id) " +
+                   "OR gs.settlement_count <> (SELECT COUNT(*) FROM settlements s WHERE s.group_id = gs.group_id)", nativeQuery = true)
+    int reconcileCounters();
+
+    /**
+     * Creates the missing summary rows, computed from the group's rows.
+     * @return the number of rows created
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "group_summaries"))
+    @Query(value = "INSERT INTO group_summaries (group_id, total_spent, expense_count, settlement_count, last_activity_at) " +
+                   "SELECT g.id, " +
+                   "(SELECT COALESCE(SUM(e.amount), 0) FROM expenses e WHERE e.group_id = g.id), " +
+                   "(SELECT COUNT(*) FROM expenses e WHERE e.group_id = g.id), " +
+                   "(SELECT COUNT(*) FROM settlements s WHERE s.group_id = g.id), " +
+                   "GREATEST(g.created_at, " +
+                   "COALESCE((SELECT MAX(e.created_at) FROM expenses e WHERE e.group_id = g.id), g.created_at), " +
+                   "COALESCE((SELECT MAX(s.settled_at) FROM settlements s WHERE s.group_id = g.id), g.created_at)) " +
+                   "FROM groups g WHERE NOT EXISTS (SELECT 1 FROM group_summaries gs WHERE gs.group_id = g.id)", nativeQuery = true)
+    int insertMissing();
+
+    @Modifying
+    @Query("DELETE FROM GroupSummary s WHERE s.groupId = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+}
@@ -3,6 +3,7 @@ package com.splitfriend.repository;
 import com.splitfriend.model.PushSubscription;
 import com.splitfriend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,4 +30,8 @@ public interface PushSubscriptionRepository extends JpaRepository<PushSubscripti
     void deleteByUser(User user);
 
     boolean existsByUserAndEndpoint(User user, String endpoint);
+
+    @Modifying
+    @Query("DELETE FROM PushSubscription ps WHERE ps.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
 }
@@ -1,35 +1,66 @@
 package com.splitfriend.repository;
 
+import com.splitfriend.dto.SettlementExportDTO;
+import com.splitfriend.dto.UserTotal;
 import com.splitfriend.model.Settlement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
 public interface SettlementRepository extends JpaRepository<Settlement, Long> {
 
+    @EntityGraph(attributePaths = {"fromUser", "toUser"})
     @Query("SELECT s FROM Settlement s WHERE s.group.id = :groupId ORDER BY s.settledAt DESC")
     List<Settlement> findByGroupId(@Param("groupId") Long groupId);
 
     @Query("SELECT s FROM Settlement s WHERE s.fromUser.id = :userId OR s.toUser.id = :userId ORDER BY s.settledAt DESC")
     List<Settlement> findByUserId(@Param("userId") Long userId);
 
+    /**
+     * Keyset page of the settlements a user sent or received, in id order.
+     * @param afterId the last id of the previous page, or 0 for the first page
+     */
+    @Query("SELECT new com.splitfriend.dto.SettlementExportDTO(s.id, g.id, g.name, f.id, f.name, t.id, t.name, s.amount, s.settledAt) " +
+           "FROM Settlement s JOIN s.group g JOIN s.fromUser f JOIN s.toUser t " +
+           "WHERE (f.id = :userId OR t.id = :userId) AND s.id > :afterId ORDER BY s.id")
+    Slice<SettlementExportDTO> findByUserId(@Param("userId") Long userId,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+
+    @Query("SELECT COUNT(s) FROM Settlement s WHERE s.fromUser.id = :userId OR s.toUser.id = :userId")
+    long countInvolvingUser(@Param("userId") Long userId);
+
+    @EntityGraph(attributePaths = {"fromUser", "toUser"})
     @Query("SELECT s FROM Settlement s WHERE s.group.id = :groupId AND (s.fromUser.id = :userId OR s.toUser.id = :userId) ORDER BY s.settledAt DESC")
     List<Settlement> findByGroupIdAndUserId(@Param("groupId") Long groupId, @Param("userId") Long userId);
 
-    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM Settlement s WHERE s.group.id = :groupId AND s.fromUser.id = :fromUserId AND s.toUser.id = :toUserId")
-    BigDecimal getTotalSettledBetweenUsers(
+    @Query(value = "SELECT CAST(COALESCE(SUM(s.amount), 0) AS BIGINT) FROM settlements s WHERE s.group_id = :groupId AND s.from_user = :fromUserId AND s.to_user = :toUserId", nativeQuery = true)
+    long getTotalSettledBetweenUsers(
             @Param("groupId") Long groupId,
             @Param("fromUserId") Long fromUserId,
             @Param("toUserId") Long toUserId);
 
+    @Query(value = "SELECT s.from_user AS userId, CAST(SUM(s.amount) AS BIGINT) AS total FROM settlements s WHERE s.group_id = :groupId GROUP BY s.from_user", nativeQuery = true)
+    List<UserTotal> sumPaidByUserInGroup(@Param("groupId") Long groupId);
+
+    @Query(value = "SELECT s.to_user AS userId, CAST(SUM(s.amount) AS BIGINT) AS total FROM settlements s WHERE s.group_id = :groupId GROUP BY s.to_user", nativeQuery = true)
+    List<UserTotal> sumReceivedByUserInGroup(@Param("groupId") Long groupId);
+
     @Query("SELECT COUNT(s) FROM Settlement s")
     long countSettlements();
 
-    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM Settlement s")
-    BigDecimal getTotalSettledAmount();
+    @Query(value = "SELECT CAST(COALESCE(SUM(s.amount), 0) AS BIGINT) FROM settlements s", nativeQuery = true)
+    long getTotalSettledAmount();
+
+    @Modifying
+    @Query("DELETE FROM Settlement s WHERE s.group.id = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
 }
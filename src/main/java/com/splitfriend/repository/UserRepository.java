@@ -2,8 +2,12 @@ package com.splitfriend.repository;
 
 import com.splitfriend.model.User;
 import com.splitfriend.model.enums.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +17,7 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
@@ -29,4 +34,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u JOIN u.groupMemberships gm WHERE gm.group.id = :groupId")
     List<User> findByGroupId(@Param("groupId") Long groupId);
+
+    /**
+     * Whether the user created a group or appears in any expense, split or settlement.
+     * Such users cannot be deleted without rewriting other members' history.
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM groups g WHERE g.created_by = :userId) " +
+                   "OR EXISTS (SELECT 1 FROM expenses e WHERE e.paid_by = :userId) " +
+                   "OR EXISTS (SELECT 1 FROM expense_splits es WHERE es.user_id = :userId) " +
+                   "OR EXISTS (SELECT 1 FROM settlements s WHERE s.from_user = :userId OR s.to_user = :userId)",
+           nativeQuery = true)
+    boolean hasGroupHistory(@Param("userId") Long userId);
+
+    /**
+     * Deletes the user row only. Its children must already be gone, see {@code UserService.deleteUser}.
+     */
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :userId")
+    int deleteRowById(@Param("userId") Long userId);
 }
@@ -3,11 +3,10 @@ package com.splitfriend.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.nio.file.Path;
-
 @Component
 public class BackupScheduler {
 
@@ -35,11 +34,11 @@ public class BackupScheduler {
 
         logger.info("Starting scheduled automatic backup...");
 
+        // Runs on the backup executor, which reports the outcome, so the scheduler thread is not held
         try {
-            Path backupFile = backupService.createBackup();
-            logger.info("Scheduled backup completed successfully: {}", backupFile.getFileName());
-        } catch (Exception e) {
-            logger.error("Scheduled backup failed: {}", e.getMessage(), e);
+            backupService.startBackup("scheduled");
+        } catch (TaskRejectedException e) {
+            logger.warn("Skipping scheduled backup, another backup is already queued");
         }
     }
 
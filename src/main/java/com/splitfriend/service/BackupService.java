@@ -1,26 +1,52 @@
 package com.splitfriend.service;
 
+import com.splitfriend.dto.BackupReportDTO;
+import com.splitfriend.util.ThrottledOutputStream;
+import org.flywaydb.core.Flyway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.sql.DataSource;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 @Service
 public class BackupService {
 
+    private static final Logger log = LoggerFactory.getLogger(BackupService.class);
+
+    private static final String SCRIPT_SUFFIX = ".sql";
+    private static final String COMPRESSED_SUFFIX = ".sql.gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private final DataSource dataSource;
+    private final Flyway flyway;
+    private final BalanceLedgerService balanceLedgerService;
+    private final BalanceCache balanceCache;
+    private final MembershipCache membershipCache;
+    private final SecondLevelCacheService secondLevelCacheService;
+    private final Executor backupExecutor;
 
     @Value("${app.backup.directory:./backups}")
     private String backupDirectory;
@@ -28,43 +54,121 @@ public class BackupService {
     @Value("${app.backup.max-files:10}")
     private int maxBackupFiles;
 
-    public BackupService(DataSource dataSource) {
+    @Value("${app.backup.max-write-rate:20MB}")
+    private DataSize maxWriteRate;
+
+    private volatile BackupReportDTO lastReport;
+
+    public BackupService(DataSource dataSource, Flyway flyway, BalanceLedgerService balanceLedgerService,
+                         BalanceCache balanceCache,
+                         MembershipCache membershipCache, SecondLevelCacheService secondLevelCacheService,
+                         @Qualifier("backupExecutor") Executor backupExecutor) {
         this.dataSource = dataSource;
+        this.flyway = flyway;
+        this.balanceLedgerService = balanceLedgerService;
+        this.balanceCache = balanceCache;
+        this.membershipCache = membershipCache;
+        this.secondLevelCacheService = secondLevelCacheService;
+        this.backupExecutor = backupExecutor;
     }
 
     /**
-     * Creates a SQL script backup of the database
-     * @return the backup file path
+     * Starts a backup on the backup executor.
+     * @param trigger what asked for the backup, shown in the report
+     * @return the report, completed when the backup has finished or failed
+     * @throws org.springframework.core.task.TaskRejectedException if a backup is already waiting
      */
-    public Path createBackup() throws Exception {
-        // Ensure backup directory exists
-        Path backupDir = Paths.get(backupDirectory);
-        Files.createDirectories(backupDir);
-
-        // Generate backup filename with timestamp
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        String filename = "splitfriend_backup_" + timestamp + ".sql";
-        Path backupFile = backupDir.resolve(filename);
+    public CompletableFuture<BackupReportDTO> startBackup(String trigger) {
+        return CompletableFuture.supplyAsync(() -> runBackup(trigger), backupExecutor);
+    }
 
-        // Use H2's SCRIPT command to create a SQL backup
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute("SCRIPT TO '" + backupFile.toAbsolutePath().toString().replace("\\", "/") + "'");
+    /**
+     * Creates a backup on the backup executor and waits for it.
+     * @return the backup file path
+     */
+    public Path createBackupAndWait(String trigger) throws Exception {
+        BackupReportDTO report;
+        try {
+            report = startBackup(trigger).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
         }
+        if (!report.isSuccessful()) {
+            throw new IOException(report.getError());
+        }
+        return Paths.get(backupDirectory).resolve(report.getFilename());
+    }
 
-        // Clean up old backups if we exceed the maximum
-        cleanupOldBackups();
+    /**
+     * The report of the most recent backup since startup, or null if none has run.
+     */
+    public BackupReportDTO getLastReport() {
+        return lastReport;
+    }
 
-        return backupFile;
+    private BackupReportDTO runBackup(String trigger) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        String filename = "splitfriend_backup_"
+                + startedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + COMPRESSED_SUFFIX;
+        BackupReportDTO report = new BackupReportDTO(filename, trigger, startedAt, 0, 0, 0, null);
+        try {
+            writeBackup(Paths.get(backupDirectory).resolve(filename), report);
+            cleanupOldBackups();
+        } catch (Exception e) {
+            report.setError(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        report.setDurationMillis((System.nanoTime() - start) / 1_000_000L);
+        lastReport = report;
+
+        if (report.isSuccessful()) {
+            log.info("Backup {} ({}) finished in {} ms: {} bytes of SQL compressed to {} bytes (ratio {})",
+                    filename, trigger, report.getDurationMillis(), report.getScriptBytes(), report.getFileBytes(),
+                    String.format("%.1f", report.getCompressionRatio()));
+        } else {
+            log.error("Backup {} ({}) failed after {} ms: {}", filename, trigger, report.getDurationMillis(),
+                    report.getError());
+        }
+        return report;
     }
 
     /**
-     * Creates a backup and returns it as a byte array for download
+     * Writes the output of H2's {@code SCRIPT} as a gzip file. H2 builds the whole script
+     * before the first row is returned, so the database is only read for that part; writing,
+     * compressing and throttling the output to {@code app.backup.max-write-rate} happen
+     * afterwards without holding anything in the database. The file appears under its final
+     * name only once complete.
      */
-    public byte[] createBackupForDownload() throws Exception {
-        Path backupFile = createBackup();
-        byte[] content = Files.readAllBytes(backupFile);
-        return content;
+    private void writeBackup(Path backupFile, BackupReportDTO report) throws Exception {
+        Files.createDirectories(backupFile.getParent());
+        Path partial = backupFile.resolveSibling(backupFile.getFileName() + ".part");
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(1000);
+            try (ResultSet rows = stmt.executeQuery("SCRIPT");
+                 ThrottledOutputStream file = new ThrottledOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(partial), BUFFER_SIZE), maxWriteRate.toBytes());
+                 // Not throttled, only counts the script bytes before compression
+                 ThrottledOutputStream script = new ThrottledOutputStream(
+                         new GZIPOutputStream(file, BUFFER_SIZE), 0);
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(script, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                while (rows.next()) {
+                    writer.write(rows.getString(1));
+                    writer.write('\n');
+                }
+                // Closing the writer writes the gzip trailer, so the counts are final afterwards
+                writer.close();
+                report.setScriptBytes(script.getWritten());
+            }
+            Files.move(partial, backupFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            report.setFileBytes(Files.size(backupFile));
+        } finally {
+            Files.deleteIfExists(partial);
+        }
     }
 
     /**
@@ -78,12 +182,13 @@ public class BackupService {
 
         // Validate file extension
         String originalFilename = backupFile.getOriginalFilename();
-        if (originalFilename == null || !originalFilename.toLowerCase().endsWith(".sql")) {
-            throw new IllegalArgumentException("Invalid backup file. Must be a .sql file");
+        if (originalFilename == null || !isBackupFile(originalFilename.toLowerCase())) {
+            throw new IllegalArgumentException("Invalid backup file. Must be a .sql or .sql.gz file");
         }
 
         // Save uploaded file temporarily
-        Path tempFile = Files.createTempFile("restore_", ".sql");
+        Path tempFile = Files.createTempFile("restore_",
+                originalFilename.toLowerCase().endsWith(COMPRESSED_SUFFIX) ? COMPRESSED_SUFFIX : SCRIPT_SUFFIX);
         try {
             backupFile.transferTo(tempFile.toFile());
 
@@ -98,8 +203,9 @@ public class BackupService {
                 stmt.execute("DROP ALL OBJECTS");
 
                 // Run the restore script
-                stmt.execute("RUNSCRIPT FROM '" + tempFile.toAbsolutePath().toString().replace("\\", "/") + "'");
+                stmt.execute(runScript(tempFile));
             }
+            afterRestore();
         } finally {
             // Clean up temp file
             Files.deleteIfExists(tempFile);
@@ -131,8 +237,38 @@ public class BackupService {
             stmt.execute("DROP ALL OBJECTS");
 
             // Run the restore script
-            stmt.execute("RUNSCRIPT FROM '" + backupFile.toAbsolutePath().toString().replace("\\", "/") + "'");
+            stmt.execute(runScript(backupFile));
         }
+        afterRestore();
+    }
+
+    /**
+     * Backups written before compression was introduced are plain SQL scripts.
+     */
+    private String runScript(Path file) {
+        String command = "RUNSCRIPT FROM '" + file.toAbsolutePath().toString().replace("\\", "/") + "'";
+        return isCompressed(file) ? command + " COMPRESSION GZIP" : command;
+    }
+
+    private static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    private static boolean isBackupFile(String filename) {
+        return filename.endsWith(SCRIPT_SUFFIX) || filename.endsWith(COMPRESSED_SUFFIX);
+    }
+
+    /**
+     * Brings backups from older versions up to the current schema, rebuilds the balance
+     * ledger (empty in backups taken before it existed) and drops cached balances,
+     * memberships and entities that no longer match the database.
+     */
+    private void afterRestore() {
+        flyway.migrate();
+        balanceLedgerService.rebuildAll();
+        balanceCache.evictAll();
+        membershipCache.evictAll();
+        secondLevelCacheService.evictAll();
     }
 
     /**
@@ -147,7 +283,7 @@ public class BackupService {
 
         try (Stream<Path> files = Files.list(backupDir)) {
             return files
-                    .filter(f -> f.toString().endsWith(".sql"))
+                    .filter(f -> isBackupFile(f.toString()))
                     .map(this::createBackupInfo)
                     .sorted(Comparator.comparing(BackupInfo::getCreatedAt).reversed())
                     .collect(Collectors.toList());
@@ -173,9 +309,9 @@ public class BackupService {
     }
 
     /**
-     * Downloads a specific backup file
+     * Resolves a backup file for download; the caller streams it from disk
      */
-    public byte[] downloadBackup(String filename) throws IOException {
+    public Path getBackupFile(String filename) {
         Path backupFile = Paths.get(backupDirectory).resolve(filename);
 
         // Security check
@@ -187,7 +323,7 @@ public class BackupService {
             throw new IllegalArgumentException("Backup file not found: " + filename);
         }
 
-        return Files.readAllBytes(backupFile);
+        return backupFile;
     }
 
     private BackupInfo createBackupInfo(Path file) {
@@ -206,18 +342,30 @@ public class BackupService {
 
     private void validateBackupFile(Path file) throws IOException {
         // Read first few lines to validate it's a H2 SQL script
-        try (BufferedReader reader = Files.newBufferedReader(file)) {
+        try (BufferedReader reader = openScript(file)) {
             String firstLine = reader.readLine();
             if (firstLine == null || !firstLine.contains("CREATE") && !firstLine.startsWith("--")) {
                 // Check if it might be a valid H2 script
-                String content = Files.readString(file);
-                if (!content.contains("CREATE TABLE") && !content.contains("INSERT INTO")) {
+                boolean found = false;
+                String line;
+                while (!found && (line = reader.readLine()) != null) {
+                    found = line.contains("CREATE TABLE") || line.contains("INSERT INTO");
+                }
+                if (!found) {
                     throw new IllegalArgumentException("Invalid backup file format. Does not appear to be a valid SQL backup.");
                 }
             }
         }
     }
 
+    private BufferedReader openScript(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (isCompressed(file)) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
     private void cleanupOldBackups() throws IOException {
         Path backupDir = Paths.get(backupDirectory);
 
@@ -227,7 +375,7 @@ public class BackupService {
 
         try (Stream<Path> files = Files.list(backupDir)) {
             List<Path> backupFiles = files
-                    .filter(f -> f.toString().endsWith(".sql"))
+                    .filter(f -> isBackupFile(f.toString()))
                     .sorted(Comparator.comparing((Path f) -> {
                         try {
                             return Files.getLastModifiedTime(f).toMillis();
@@ -0,0 +1,107 @@
+package com.splitfriend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.splitfriend.dto.BalanceDTO;
+import com.splitfriend.dto.CacheStatsDTO;
+import com.splitfriend.dto.UserDTO;
+import com.splitfriend.event.GroupBalancesChangedEvent;
+import com.splitfriend.event.GroupMembershipChangedEvent;
+import com.splitfriend.event.UserProfileChangedEvent;
+import com.splitfriend.model.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of group balance snapshots, keyed by group id.
+ * Entries are evicted once the transaction that changed the group commits.
+ * Settlement plans are cached per snapshot instance, so a plan is dropped along with the
+ * snapshot it was computed from and never outlives the balances it settles.
+ */
+@Component
+public class BalanceCache {
+
+    private final Cache<Long, GroupBalanceSnapshot> cache;
+    private final Cache<GroupBalanceSnapshot, List<BalanceDTO.DebtDTO>> settlementPlans;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BalanceCache(@Value("${app.cache.balances.max-size:1000}") long maxSize,
+                        @Value("${app.cache.balances.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Weak keys are compared by identity and go once the snapshot is no longer cached
+        this.settlementPlans = Caffeine.newBuilder()
+                .weakKeys()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public GroupBalanceSnapshot get(Long groupId, Function<Long, GroupBalanceSnapshot> loader) {
+        return cache.get(groupId, loader);
+    }
+
+    public List<BalanceDTO.DebtDTO> getSettlementPlan(GroupBalanceSnapshot snapshot,
+                                                      Function<GroupBalanceSnapshot, List<BalanceDTO.DebtDTO>> planner) {
+        return settlementPlans.get(snapshot, planner);
+    }
+
+    public void evict(Long groupId) {
+        cache.invalidate(groupId);
+        invalidations.incrementAndGet();
+    }
+
+    public void evictAll() {
+        invalidations.addAndGet(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBalancesChanged(GroupBalancesChangedEvent event) {
+        evict(event.groupId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        evict(event.groupId());
+    }
+
+    /**
+     * Snapshots carry member names, so drop every group the user appears in.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        cache.asMap().forEach((groupId, snapshot) -> {
+            if (snapshot.members().stream().anyMatch(m -> m.getId().equals(event.userId()))) {
+                evict(groupId);
+            }
+        });
+    }
+
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO("balances", cache.estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.evictionCount(), invalidations.get());
+    }
+
+    /**
+     * Immutable view of a group's balances together with its current members.
+     */
+    public record GroupBalanceSnapshot(Map<Long, Money> balances, List<UserDTO> members) {
+
+        public GroupBalanceSnapshot {
+            balances = Map.copyOf(balances);
+            members = List.copyOf(members);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.splitfriend.service;
+
+import com.splitfriend.dto.GroupAmountDTO;
+import com.splitfriend.dto.UserAmountDTO;
+import com.splitfriend.dto.UserTotal;
+import com.splitfriend.model.*;
+import com.splitfriend.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Maintains the per-(group, user) running balance table. Every expense or settlement
+ * write applies its deltas here inside the caller's transaction, so balances can be
+ * read without replaying the group's history.
+ */
+@Service
+@Transactional
+public class BalanceLedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceLedgerService.class);
+
+    // Adds a delta to a balance, creating the row on the first write
+    private static final String UPSERT_BALANCE = "MERGE INTO group_balances gb " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS BIGINT))) AS d(group_id, user_id, delta) " +
+            "ON gb.group_id = d.group_id AND gb.user_id = d.user_id " +
+            "WHEN MATCHED THEN UPDATE SET balance = gb.balance + d.delta " +
+            "WHEN NOT MATCHED THEN INSERT (group_id, user_id, balance) VALUES (d.group_id, d.user_id, d.delta)";
+
+    private final GroupBalanceRepository groupBalanceRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseSplitRepository expenseSplitRepository;
+    private final SettlementRepository settlementRepository;
+    private final GroupRepository groupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BalanceLedgerService(GroupBalanceRepository groupBalanceRepository,
+                                ExpenseRepository expenseRepository,
+                                ExpenseSplitRepository expenseSplitRepository,
+                                SettlementRepository settlementRepository,
+                                GroupRepository groupRepository,
+                                GroupMemberRepository groupMemberRepository,
+                                UserRepository userRepository,
+                                JdbcTemplate jdbcTemplate) {
+        this.groupBalanceRepository = groupBalanceRepository;
+        this.expenseRepository = expenseRepository;
+        this.expenseSplitRepository = expenseSplitRepository;
+        this.settlementRepository = settlementRepository;
+        this.groupRepository = groupRepository;
+        this.groupMemberRepository = groupMemberRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordExpense(Expense expense) {
+        applyExpense(expense, false);
+    }
+
+    public void reverseExpense(Expense expense) {
+        applyExpense(expense, true);
+    }
+
+    public void recordSettlement(Settlement settlement) {
+        applySettlement(settlement, false);
+    }
+
+    public void reverseSettlement(Settlement settlement) {
+        applySettlement(settlement, true);
+    }
+
+    /**
+     * Applies the combined balance changes of many expenses at once, as written by an import.
+     * @param deltas the change of each user's balance, by user id
+     */
+    public void recordDeltas(Long groupId, Map<Long, Long> deltas) {
+        applyDeltas(groupId, deltas, false);
+    }
+
+    /**
+     * Creates the user's zero balance row when they join a group, so that later expense and
+     * settlement writes only ever update an existing row.
+     */
+    public void openBalance(Long groupId, Long userId) {
+        jdbcTemplate.update(UPSERT_BALANCE, groupId, userId, 0L);
+    }
+
+    public void clearGroup(Long groupId) {
+        groupBalanceRepository.deleteByGroupId(groupId);
+    }
+
+    public void clearUser(Long userId) {
+        groupBalanceRepository.deleteByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Money> getGroupBalances(Long groupId) {
+        Map<Long, Money> balances = new HashMap<>();
+        for (UserAmountDTO row : groupBalanceRepository.findBalancesByGroupId(groupId)) {
+            balances.put(row.getUserId(), row.getAmount());
+        }
+        return balances;
+    }
+
+    /**
+     * Returns the user's balance in every group they have a ledger row in, keyed by group id.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Money> getUserBalances(Long userId) {
+        Map<Long, Money> balances = new HashMap<>();
+        for (GroupAmountDTO row : groupBalanceRepository.findBalancesByUserId(userId)) {
+            balances.put(row.getGroupId(), row.getAmount());
+        }
+        return balances;
+    }
+
+    /**
+     * Recomputes the ledger rows of a group from its raw expenses and settlements.
+     */
+    public void rebuildGroup(Long groupId) {
+        Map<Long, Long> balances = replayGroupBalances(groupId);
+        for (Long memberId : groupMemberRepository.findUserIdsByGroupId(groupId)) {
+            balances.putIfAbsent(memberId, 0L);
+        }
+
+        groupBalanceRepository.deleteByGroupId(groupId);
+        Group group = groupRepository.getReferenceById(groupId);
+        List<GroupBalance> rows = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : balances.entrySet()) {
+            rows.add(GroupBalance.builder()
+                    .group(group)
+                    .user(userRepository.getReferenceById(entry.getKey()))
+                    .balance(Money.ofMinorUnits(entry.getValue()))
+                    .build());
+        }
+        groupBalanceRepository.saveAll(rows);
+    }
+
+    /**
+     * Recomputes the ledger of every group.
+     * @return the number of groups rebuilt
+     */
+    public int rebuildAll() {
+        List<Long> groupIds = groupRepository.findAllIds();
+        for (Long groupId : groupIds) {
+            rebuildGroup(groupId);
+        }
+        log.info("Rebuilt balance ledger for {} groups", groupIds.size());
+        return groupIds.size();
+    }
+
+    /**
+     * Populates the ledger on first start after an upgrade, when history exists
+     * but no ledger rows have been written yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeLedger() {
+        if (groupBalanceRepository.count() == 0
+                && (expenseRepository.count() > 0 || settlementRepository.count() > 0)) {
+            log.info("Balance ledger is empty, rebuilding from existing expenses and settlements");
+            rebuildAll();
+        }
+    }
+
+    /**
+     * Computes a group's balances from the raw rows using aggregate queries only,
+     * so no expense, split or settlement entity is loaded into the persistence context.
+     */
+    Map<Long, Long> replayGroupBalances(Long groupId) {
+        Map<Long, Long> balances = new HashMap<>();
+
+        // Payers get credit for paying, participants owe their share
+        mergeTotals(balances, expenseRepository.sumPaidByUserInGroup(groupId), false);
+        mergeTotals(balances, expenseSplitRepository.sumOwedByUserInGroup(groupId), true);
+
+        // Settlement senders owe less, receivers are owed less
+        mergeTotals(balances, settlementRepository.sumPaidByUserInGroup(groupId), false);
+        mergeTotals(balances, settlementRepository.sumReceivedByUserInGroup(groupId), true);
+
+        return balances;
+    }
+
+    private void mergeTotals(Map<Long, Long> balances, List<UserTotal> totals, boolean negate) {
+        for (UserTotal total : totals) {
+            long amount = negate ? -total.getTotal() : total.getTotal();
+            balances.merge(total.getUserId(), amount, Long::sum);
+        }
+    }
+
+    private void applyExpense(Expense expense, boolean reverse) {
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        deltas.merge(expense.getPaidBy().getId(), expense.getAmount().getMinorUnits(), Long::sum);
+        for (ExpenseSplit split : expense.getSplits()) {
+            deltas.merge(split.getUser().getId(), -split.getAmount().getMinorUnits(), Long::sum);
+        }
+        applyDeltas(expense.getGroup().getId(), deltas, reverse);
+    }
+
+    private void applySettlement(Settlement settlement, boolean reverse) {
+        Map<Long, Long> deltas = new LinkedHashMap<>();
+        deltas.merge(settlement.getFromUser().getId(), settlement.getAmount().getMinorUnits(), Long::sum);
+        deltas.merge(settlement.getToUser().getId(), -settlement.getAmount().getMinorUnits(), Long::sum);
+        applyDeltas(settlement.getGroup().getId(), deltas, reverse);
+    }
+
+    /**
+     * Writes all of a change's deltas as one JDBC batch, so an expense costs one round trip
+     * to the ledger however many participants it has.
+     */
+    private void applyDeltas(Long groupId, Map<Long, Long> deltas, boolean reverse) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            long delta = reverse ? -entry.getValue() : entry.getValue();
+            if (delta != 0) {
+                rows.add(new Object[]{groupId, entry.getKey(), delta});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_BALANCE, rows);
+        }
+    }
+}
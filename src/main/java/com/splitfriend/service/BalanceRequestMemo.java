@@ -0,0 +1,66 @@
+package com.splitfriend.service;
+
+import com.splitfriend.event.GroupBalancesChangedEvent;
+import com.splitfriend.event.GroupMembershipChangedEvent;
+import com.splitfriend.event.UserProfileChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Memoizes group balance snapshots for the duration of the current HTTP request, so a page
+ * calling several {@link BalanceService} methods for the same group loads it only once.
+ * Outside a request the loader is called directly.
+ */
+@Component
+public class BalanceRequestMemo {
+
+    private static final String ATTRIBUTE = BalanceRequestMemo.class.getName() + ".snapshots";
+
+    public BalanceCache.GroupBalanceSnapshot get(Long groupId,
+                                                 Function<Long, BalanceCache.GroupBalanceSnapshot> loader) {
+        Map<Long, BalanceCache.GroupBalanceSnapshot> snapshots = currentSnapshots(true);
+        if (snapshots == null) {
+            return loader.apply(groupId);
+        }
+        BalanceCache.GroupBalanceSnapshot snapshot = snapshots.get(groupId);
+        if (snapshot == null) {
+            snapshot = loader.apply(groupId);
+            snapshots.put(groupId, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes done earlier in the same request must be visible to later reads, so
+     * any change drops everything memoized so far.
+     */
+    @EventListener({GroupBalancesChangedEvent.class, GroupMembershipChangedEvent.class,
+            UserProfileChangedEvent.class})
+    public void onChange() {
+        Map<Long, BalanceCache.GroupBalanceSnapshot> snapshots = currentSnapshots(false);
+        if (snapshots != null) {
+            snapshots.clear();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, BalanceCache.GroupBalanceSnapshot> currentSnapshots(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<Long, BalanceCache.GroupBalanceSnapshot> snapshots =
+                (Map<Long, BalanceCache.GroupBalanceSnapshot>) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (snapshots == null && create) {
+            snapshots = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE, snapshots, RequestAttributes.SCOPE_REQUEST);
+        }
+        return snapshots;
+    }
+}
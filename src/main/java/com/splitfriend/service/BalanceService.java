@@ -1,74 +1,49 @@
 package com.splitfriend.service;
 
 import com.splitfriend.dto.BalanceDTO;
-import com.splitfriend.model.*;
-import com.splitfriend.repository.ExpenseRepository;
-import com.splitfriend.repository.SettlementRepository;
+import com.splitfriend.dto.UserDTO;
+import com.splitfriend.model.Money;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.*;
 
 @Service
 @Transactional(readOnly = true)
 public class BalanceService {
 
-    private final ExpenseRepository expenseRepository;
-    private final SettlementRepository settlementRepository;
+    private final BalanceLedgerService balanceLedgerService;
     private final GroupService groupService;
-
-    public BalanceService(ExpenseRepository expenseRepository,
-                          SettlementRepository settlementRepository,
-                          GroupService groupService) {
-        this.expenseRepository = expenseRepository;
-        this.settlementRepository = settlementRepository;
+    private final BalanceCache balanceCache;
+    private final BalanceRequestMemo balanceRequestMemo;
+    private final DebtSimplificationService debtSimplificationService;
+
+    public BalanceService(BalanceLedgerService balanceLedgerService,
+                          GroupService groupService,
+                          BalanceCache balanceCache,
+                          BalanceRequestMemo balanceRequestMemo,
+                          DebtSimplificationService debtSimplificationService) {
+        this.balanceLedgerService = balanceLedgerService;
         this.groupService = groupService;
+        this.balanceCache = balanceCache;
+        this.balanceRequestMemo = balanceRequestMemo;
+        this.debtSimplificationService = debtSimplificationService;
     }
 
-    public Map<Long, BigDecimal> calculateGroupBalances(Long groupId) {
-        Map<Long, BigDecimal> balances = new HashMap<>();
-
-        // Get all expenses with splits for this group
-        List<Expense> expenses = expenseRepository.findByGroupIdWithSplits(groupId);
-
-        for (Expense expense : expenses) {
-            Long payerId = expense.getPaidBy().getId();
-            BigDecimal totalAmount = expense.getAmount();
-
-            // Payer gets credit for paying
-            balances.merge(payerId, totalAmount, BigDecimal::add);
-
-            // Each participant owes their share
-            for (ExpenseSplit split : expense.getSplits()) {
-                Long userId = split.getUser().getId();
-                balances.merge(userId, split.getAmount().negate(), BigDecimal::add);
-            }
-        }
-
-        // Account for settlements
-        List<Settlement> settlements = settlementRepository.findByGroupId(groupId);
-        for (Settlement settlement : settlements) {
-            Long fromUserId = settlement.getFromUser().getId();
-            Long toUserId = settlement.getToUser().getId();
-            BigDecimal amount = settlement.getAmount();
-
-            // FromUser paid money, so their balance increases (they owe less)
-            balances.merge(fromUserId, amount, BigDecimal::add);
-            // ToUser received money, so their balance decreases (they're owed less)
-            balances.merge(toUserId, amount.negate(), BigDecimal::add);
-        }
-
-        return balances;
+    /**
+     * Returns the balances of every user with activity in the group. The returned map is read-only.
+     */
+    public Map<Long, Money> calculateGroupBalances(Long groupId) {
+        return getSnapshot(groupId).balances();
     }
 
     public List<BalanceDTO> getDetailedBalances(Long groupId) {
-        Map<Long, BigDecimal> balances = calculateGroupBalances(groupId);
-        List<User> members = groupService.getGroupMemberUsers(groupId);
+        BalanceCache.GroupBalanceSnapshot snapshot = getSnapshot(groupId);
+        Map<Long, Money> balances = snapshot.balances();
         List<BalanceDTO> result = new ArrayList<>();
 
-        for (User member : members) {
-            BigDecimal balance = balances.getOrDefault(member.getId(), BigDecimal.ZERO);
+        for (UserDTO member : snapshot.members()) {
+            Money balance = balances.getOrDefault(member.getId(), Money.ZERO);
             result.add(new BalanceDTO(member.getId(), member.getName(), member.getEmail(), balance));
         }
 
@@ -76,78 +51,48 @@ public class BalanceService {
         return result;
     }
 
-    public BigDecimal getUserBalanceInGroup(Long groupId, Long userId) {
-        Map<Long, BigDecimal> balances = calculateGroupBalances(groupId);
-        return balances.getOrDefault(userId, BigDecimal.ZERO);
+    public Money getUserBalanceInGroup(Long groupId, Long userId) {
+        Map<Long, Money> balances = calculateGroupBalances(groupId);
+        return balances.getOrDefault(userId, Money.ZERO);
     }
 
-    public Map<Long, BigDecimal> getUserOverallBalances(Long userId) {
-        Map<Long, BigDecimal> overallBalances = new HashMap<>();
-        List<Group> userGroups = groupService.findByUser(
-                groupService.getGroupMemberUsers(0L).stream()
-                        .filter(u -> u.getId().equals(userId))
-                        .findFirst()
-                        .orElse(null));
-
-        // This would need to be implemented properly with user lookup
-        return overallBalances;
+    /**
+     * Returns the user's balance in each of their groups, keyed by group id,
+     * read in a single query. Groups without any activity are absent from the map.
+     */
+    public Map<Long, Money> getUserOverallBalances(Long userId) {
+        return balanceLedgerService.getUserBalances(userId);
     }
 
     public List<BalanceDTO.DebtDTO> calculateDebts(Long groupId) {
-        Map<Long, BigDecimal> balances = calculateGroupBalances(groupId);
-        List<User> members = groupService.getGroupMemberUsers(groupId);
-        Map<Long, String> userNames = new HashMap<>();
-        for (User member : members) {
-            userNames.put(member.getId(), member.getName());
-        }
-
-        List<BalanceDTO.DebtDTO> debts = new ArrayList<>();
+        BalanceCache.GroupBalanceSnapshot snapshot = getSnapshot(groupId);
+        return debtSimplificationService.simplifyDebts(snapshot.balances(), getUserNames(snapshot));
+    }
 
-        // Separate into creditors (positive balance) and debtors (negative balance)
-        List<Map.Entry<Long, BigDecimal>> creditors = new ArrayList<>();
-        List<Map.Entry<Long, BigDecimal>> debtors = new ArrayList<>();
+    /**
+     * Returns the plan with the fewest transfers. Finding it can take up to the search time
+     * budget, so the plan is cached with the balance snapshot and only recomputed when the
+     * group's balances or members change. The returned list is read-only.
+     */
+    public List<BalanceDTO.DebtDTO> calculateOptimalDebts(Long groupId) {
+        return balanceCache.getSettlementPlan(getSnapshot(groupId), snapshot -> List.copyOf(
+                debtSimplificationService.simplifyDebtsOptimal(snapshot.balances(), getUserNames(snapshot))));
+    }
 
-        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
-            if (entry.getValue().compareTo(BigDecimal.ZERO) > 0) {
-                creditors.add(entry);
-            } else if (entry.getValue().compareTo(BigDecimal.ZERO) < 0) {
-                debtors.add(entry);
-            }
+    private Map<Long, String> getUserNames(BalanceCache.GroupBalanceSnapshot snapshot) {
+        Map<Long, String> userNames = new HashMap<>();
+        for (UserDTO member : snapshot.members()) {
+            userNames.put(member.getId(), member.getName());
         }
+        return userNames;
+    }
 
-        // Sort by absolute value (largest first)
-        creditors.sort((a, b) -> b.getValue().compareTo(a.getValue()));
-        debtors.sort((a, b) -> a.getValue().compareTo(b.getValue())); // Most negative first
-
-        // Match debtors to creditors
-        int i = 0, j = 0;
-        while (i < creditors.size() && j < debtors.size()) {
-            Map.Entry<Long, BigDecimal> creditor = creditors.get(i);
-            Map.Entry<Long, BigDecimal> debtor = debtors.get(j);
-
-            BigDecimal credit = creditor.getValue();
-            BigDecimal debt = debtor.getValue().abs();
-
-            BigDecimal payment = credit.min(debt);
-
-            if (payment.compareTo(new BigDecimal("0.01")) >= 0) {
-                debts.add(new BalanceDTO.DebtDTO(
-                        debtor.getKey(),
-                        userNames.get(debtor.getKey()),
-                        creditor.getKey(),
-                        userNames.get(creditor.getKey()),
-                        payment
-                ));
-            }
-
-            // Update balances
-            creditor.setValue(credit.subtract(payment));
-            debtor.setValue(debtor.getValue().add(payment));
-
-            if (creditor.getValue().compareTo(new BigDecimal("0.01")) < 0) i++;
-            if (debtor.getValue().abs().compareTo(new BigDecimal("0.01")) < 0) j++;
-        }
+    private BalanceCache.GroupBalanceSnapshot getSnapshot(Long groupId) {
+        return balanceRequestMemo.get(groupId, id -> balanceCache.get(id, this::loadSnapshot));
+    }
 
-        return debts;
+    private BalanceCache.GroupBalanceSnapshot loadSnapshot(Long groupId) {
+        return new BalanceCache.GroupBalanceSnapshot(balanceLedgerService.getGroupBalances(groupId),
+                groupService.getMemberSummaries(groupId));
     }
 }
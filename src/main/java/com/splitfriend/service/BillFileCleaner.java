@@ -0,0 +1,58 @@
+package com.splitfriend.service;
+
+import com.splitfriend.event.GroupDeletedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Removes the bill files of deleted groups. Bills are stored under {@code bills/<groupId>},
+ * so the whole directory goes at once, and only after the deletion has committed.
+ */
+@Component
+public class BillFileCleaner {
+
+    private static final Logger log = LoggerFactory.getLogger(BillFileCleaner.class);
+
+    @Value("${app.upload.path:./uploads}")
+    private String uploadPath;
+
+    @TransactionalEventListener
+    public void onGroupDeleted(GroupDeletedEvent event) {
+        Path directory = Paths.get(uploadPath, "bills", event.groupId().toString());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            // Children before their directory
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        } catch (IOException e) {
+            log.warn("Could not list bills of deleted group {}: {}", event.groupId(), e.getMessage());
+            return;
+        }
+
+        int failed = 0;
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            log.warn("Could not delete {} bill files of deleted group {} under {}", failed, event.groupId(), directory);
+        }
+    }
+}
@@ -1,102 +1,129 @@
 package com.splitfriend.service;
 
 import com.splitfriend.dto.BalanceDTO;
+import com.splitfriend.model.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.*;
 
 @Service
 public class DebtSimplificationService {
 
+    private final OptimalDebtSolver optimalDebtSolver;
+
+    public DebtSimplificationService(@Value("${app.debts.optimal.exact-max-participants:18}") int exactMaxParticipants,
+                                     @Value("${app.debts.optimal.time-budget:250ms}") Duration timeBudget) {
+        this.optimalDebtSolver = new OptimalDebtSolver(exactMaxParticipants, timeBudget.toNanos());
+    }
+
     /**
      * Simplifies debts using a greedy algorithm to minimize the number of transactions.
      * Uses the "settling debts" algorithm where we match largest creditor with largest debtor.
      */
-    public List<BalanceDTO.DebtDTO> simplifyDebts(Map<Long, BigDecimal> balances, Map<Long, String> userNames) {
-        List<BalanceDTO.DebtDTO> simplifiedDebts = new ArrayList<>();
-
-        // Create mutable copies
-        TreeMap<BigDecimal, List<Long>> creditors = new TreeMap<>(Collections.reverseOrder()); // Descending
-        TreeMap<BigDecimal, List<Long>> debtors = new TreeMap<>(); // Ascending (most negative first)
-
-        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
-            BigDecimal balance = entry.getValue();
-            Long userId = entry.getKey();
+    public List<BalanceDTO.DebtDTO> simplifyDebts(Map<Long, Money> balances, Map<Long, String> userNames) {
+        long[] ids = new long[balances.size()];
+        long[] amounts = new long[balances.size()];
+        int i = 0;
+        for (Map.Entry<Long, Money> entry : balances.entrySet()) {
+            ids[i] = entry.getKey();
+            amounts[i] = entry.getValue().getMinorUnits();
+            i++;
+        }
+        return toDebts(SettlementPlanner.plan(ids, amounts, 1), userNames);
+    }
 
-            if (balance.compareTo(new BigDecimal("0.01")) >= 0) {
-                creditors.computeIfAbsent(balance, k -> new ArrayList<>()).add(userId);
-            } else if (balance.compareTo(new BigDecimal("-0.01")) <= 0) {
-                debtors.computeIfAbsent(balance, k -> new ArrayList<>()).add(userId);
+    /**
+     * Finds a plan with the fewest possible transfers. The balances are split into as many
+     * independent zero-sum groups as possible, then each group is settled on its own.
+     * Falls back to {@link #simplifyDebts} when the
+     * search cannot beat it within the time budget, or the group is too large to search.
+     */
+    public List<BalanceDTO.DebtDTO> simplifyDebtsOptimal(Map<Long, Money> balances, Map<Long, String> userNames) {
+        List<BalanceDTO.DebtDTO> greedy = simplifyDebts(balances, userNames);
+
+        List<Long> userIds = new ArrayList<>();
+        List<Long> units = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Long, Money> entry : balances.entrySet()) {
+            long amount = entry.getValue().getMinorUnits();
+            if (amount != 0) {
+                userIds.add(entry.getKey());
+                units.add(amount);
+                total += amount;
             }
         }
+        if (units.size() > OptimalDebtSolver.MAX_SEARCH_PARTICIPANTS) {
+            return greedy;
+        }
 
-        // Use a working map to track remaining balances
-        Map<Long, BigDecimal> workingBalances = new HashMap<>(balances);
-
-        while (!creditors.isEmpty() && !debtors.isEmpty()) {
-            // Get largest creditor
-            Map.Entry<BigDecimal, List<Long>> creditorEntry = creditors.firstEntry();
-            Long creditorId = creditorEntry.getValue().get(0);
-            BigDecimal credit = workingBalances.get(creditorId);
-
-            // Get largest debtor (most negative)
-            Map.Entry<BigDecimal, List<Long>> debtorEntry = debtors.firstEntry();
-            Long debtorId = debtorEntry.getValue().get(0);
-            BigDecimal debt = workingBalances.get(debtorId).abs();
-
-            // Calculate payment
-            BigDecimal payment = credit.min(debt);
-
-            if (payment.compareTo(new BigDecimal("0.01")) >= 0) {
-                simplifiedDebts.add(new BalanceDTO.DebtDTO(
-                        debtorId,
-                        userNames.getOrDefault(debtorId, "User " + debtorId),
-                        creditorId,
-                        userNames.getOrDefault(creditorId, "User " + creditorId),
-                        payment
-                ));
+        long[] adjusted = absorbResidue(units, total);
+        List<Long> ids = new ArrayList<>();
+        List<Long> nonZero = new ArrayList<>();
+        for (int i = 0; i < adjusted.length; i++) {
+            if (adjusted[i] != 0) {
+                ids.add(userIds.get(i));
+                nonZero.add(adjusted[i]);
             }
+        }
+        long[] amounts = nonZero.stream().mapToLong(Long::longValue).toArray();
+        List<int[]> groups = optimalDebtSolver.partition(amounts, amounts.length - greedy.size());
+        if (groups == null) {
+            return greedy;
+        }
 
-            // Update working balances
-            BigDecimal newCreditorBalance = credit.subtract(payment);
-            BigDecimal newDebtorBalance = workingBalances.get(debtorId).add(payment);
-
-            workingBalances.put(creditorId, newCreditorBalance);
-            workingBalances.put(debtorId, newDebtorBalance);
-
-            // Remove from trees and re-add if still has balance
-            removeFromTree(creditors, creditorEntry.getKey(), creditorId);
-            removeFromTree(debtors, debtorEntry.getKey(), debtorId);
-
-            if (newCreditorBalance.compareTo(new BigDecimal("0.01")) >= 0) {
-                creditors.computeIfAbsent(newCreditorBalance, k -> new ArrayList<>()).add(creditorId);
-            }
-            if (newDebtorBalance.compareTo(new BigDecimal("-0.01")) <= 0) {
-                debtors.computeIfAbsent(newDebtorBalance, k -> new ArrayList<>()).add(debtorId);
+        List<BalanceDTO.DebtDTO> debts = new ArrayList<>();
+        for (int[] group : groups) {
+            long[] groupIds = new long[group.length];
+            long[] groupAmounts = new long[group.length];
+            for (int k = 0; k < group.length; k++) {
+                groupIds[k] = ids.get(group[k]);
+                groupAmounts[k] = amounts[group[k]];
             }
+            debts.addAll(toDebts(SettlementPlanner.plan(groupIds, groupAmounts, 1), userNames));
         }
-
-        return simplifiedDebts;
+        return debts.size() < greedy.size() ? debts : greedy;
     }
 
-    private void removeFromTree(TreeMap<BigDecimal, List<Long>> tree, BigDecimal key, Long userId) {
-        List<Long> users = tree.get(key);
-        if (users != null) {
-            users.remove(userId);
-            if (users.isEmpty()) {
-                tree.remove(key);
+    /**
+     * Exact splits entered by hand need not add up to the expense amount, which leaves the
+     * group total slightly off zero. The difference is taken from the largest balances on
+     * the side in excess, which is what the greedy plan leaves unsettled too.
+     */
+    private long[] absorbResidue(List<Long> units, long total) {
+        long[] amounts = new long[units.size()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = units.get(i);
+        }
+        while (total != 0) {
+            int largest = -1;
+            for (int i = 0; i < amounts.length; i++) {
+                if (Long.signum(amounts[i]) == Long.signum(total)
+                        && (largest < 0 || Math.abs(amounts[i]) > Math.abs(amounts[largest]))) {
+                    largest = i;
+                }
             }
+            long taken = Long.signum(total) * Math.min(Math.abs(total), Math.abs(amounts[largest]));
+            amounts[largest] -= taken;
+            total -= taken;
         }
+        return amounts;
     }
 
-    /**
-     * Alternative algorithm using min-cash-flow approach.
-     * This finds the optimal solution but may be slower for large groups.
-     */
-    public List<BalanceDTO.DebtDTO> simplifyDebtsOptimal(Map<Long, BigDecimal> balances, Map<Long, String> userNames) {
-        // For smaller groups, the greedy algorithm is usually optimal
-        // For larger groups, more sophisticated algorithms could be used
-        return simplifyDebts(balances, userNames);
+    private List<BalanceDTO.DebtDTO> toDebts(SettlementPlanner.Plan plan, Map<Long, String> userNames) {
+        List<BalanceDTO.DebtDTO> debts = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            Long fromId = plan.fromId(i);
+            Long toId = plan.toId(i);
+            debts.add(new BalanceDTO.DebtDTO(
+                    fromId,
+                    userNames.getOrDefault(fromId, "User " + fromId),
+                    toId,
+                    userNames.getOrDefault(toId, "User " + toId),
+                    Money.ofMinorUnits(plan.amount(i))
+            ));
+        }
+        return debts;
     }
 }
@@ -0,0 +1,507 @@
+package com.splitfriend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitfriend.dto.ExpenseImportResultDTO;
+import com.splitfriend.event.GroupBalancesChangedEvent;
+import com.splitfriend.model.Expense;
+import com.splitfriend.model.ExpenseSplit;
+import com.splitfriend.model.Group;
+import com.splitfriend.model.Money;
+import com.splitfriend.model.User;
+import com.splitfriend.model.enums.SplitType;
+import com.splitfriend.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports a group's past expenses from a CSV or JSON file.
+ * <p>
+ * The file is read twice as a stream. The first pass validates every row and nothing is
+ * written unless all rows are valid. The second pass persists the expenses with their splits
+ * in JDBC batches, clearing the persistence context after each batch, so memory use does not
+ * grow with the file. Splits follow the same rules as {@link ExpenseService#buildSplits}.
+ * The balance ledger and the group summary are updated once at the end, and the import
+ * sends no notifications.
+ */
+@Service
+@Transactional
+public class ExpenseImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseImportService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int MAX_DESCRIPTION_LENGTH = 500;
+
+    private final GroupService groupService;
+    private final ExpenseService expenseService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final GroupSummaryService groupSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.expenses.import.batch-size:500}")
+    private int batchSize;
+
+    public ExpenseImportService(GroupService groupService,
+                                ExpenseService expenseService,
+                                BalanceLedgerService balanceLedgerService,
+                                GroupSummaryService groupSummaryService,
+                                ApplicationEventPublisher eventPublisher,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.groupService = groupService;
+        this.expenseService = expenseService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.groupSummaryService = groupSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Imports the expenses of a file into a group. Files named {@code *.json} hold an array
+     * of expense objects; anything else is read as CSV with a header row.
+     */
+    public ExpenseImportResultDTO importExpenses(Group group, MultipartFile file) throws IOException {
+        long start = System.currentTimeMillis();
+        boolean json = isJson(file);
+        Members members = new Members(groupService.getGroupMemberUsers(group.getId()));
+
+        // First pass: validate everything, write nothing
+        int rows = 0;
+        int rejected = 0;
+        List<String> errors = new ArrayList<>();
+        try (RowReader reader = open(file, json)) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                rows++;
+                try {
+                    validate(row, members, group.getCurrency());
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Row " + row.line + ": " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return new ExpenseImportResultDTO(0, 1, List.of(e.getMessage()));
+        }
+        if (rejected > 0 || rows == 0) {
+            if (rows == 0) {
+                errors.add("The file contains no expenses");
+            }
+            return new ExpenseImportResultDTO(0, Math.max(rejected, 1), errors);
+        }
+
+        // Second pass: persist in batches
+        Session session = entityManager.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+        int imported = 0;
+        long total = 0;
+        // Balance change of each member over the whole file, applied to the ledger once
+        Map<Long, Long> balanceDeltas = new HashMap<>();
+        try (RowReader reader = open(file, json)) {
+            ImportRow row;
+            while ((row = reader.next()) != null) {
+                ValidRow valid = validate(row, members, group.getCurrency());
+                Expense expense = Expense.builder()
+                        .group(group)
+                        .paidBy(valid.payer)
+                        .description(valid.description)
+                        .amount(valid.amount)
+                        .splitType(valid.splitType)
+                        .expenseDate(valid.date)
+                        .build();
+                List<ExpenseSplit> splits = expenseService.buildSplits(expense, group.getCurrency(),
+                        valid.exactAmounts, valid.percentages, valid.shares, valid.participants);
+                expense.setSplits(splits);
+                // Splits are cascaded
+                entityManager.persist(expense);
+
+                balanceDeltas.merge(valid.payer.getId(), valid.amount.getMinorUnits(), Long::sum);
+                for (ExpenseSplit split : splits) {
+                    balanceDeltas.merge(split.getUser().getId(), -split.getAmount().getMinorUnits(), Long::sum);
+                }
+                imported++;
+                total += valid.amount.getMinorUnits();
+                if (imported % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+
+        balanceLedgerService.recordDeltas(group.getId(), balanceDeltas);
+        groupSummaryService.recordExpenses(group.getId(), total, imported);
+        eventPublisher.publishEvent(new GroupBalancesChangedEvent(group.getId()));
+
+        log.info("Imported {} expenses into group {} in {} ms", imported, group.getId(),
+                System.currentTimeMillis() - start);
+        return new ExpenseImportResultDTO(imported, 0, List.of());
+    }
+
+    private boolean isJson(MultipartFile file) {
+        String name = file.getOriginalFilename();
+        return (name != null && name.toLowerCase(Locale.ROOT).endsWith(".json"))
+                || "application/json".equals(file.getContentType());
+    }
+
+    private RowReader open(MultipartFile file, boolean json) throws IOException {
+        return json ? new JsonRowReader(file) : new CsvRowReader(file);
+    }
+
+    /**
+     * Checks a row and resolves its members.
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    private ValidRow validate(ImportRow row, Members members, String currency) {
+        ValidRow valid = new ValidRow();
+
+        if (isBlank(row.date)) {
+            throw new IllegalArgumentException("date is missing");
+        }
+        try {
+            valid.date = LocalDate.parse(row.date.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date '" + row.date + "' is not in yyyy-MM-dd format");
+        }
+
+        if (isBlank(row.description)) {
+            throw new IllegalArgumentException("description is missing");
+        }
+        valid.description = row.description.trim();
+        if (valid.description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+
+        valid.amount = Money.of(parseNumber(row.amount, "amount"), currency);
+        if (!valid.amount.isPositive()) {
+            throw new IllegalArgumentException("amount must be positive");
+        }
+
+        valid.payer = members.resolve(row.paidBy, "payer");
+
+        if (isBlank(row.splitType)) {
+            valid.splitType = SplitType.EQUAL;
+        } else {
+            try {
+                valid.splitType = SplitType.valueOf(row.splitType.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown split type '" + row.splitType + "'");
+            }
+        }
+
+        valid.participants = new ArrayList<>();
+        if (row.participants.isEmpty()) {
+            if (valid.splitType != SplitType.EQUAL) {
+                throw new IllegalArgumentException(valid.splitType + " splits need their participants listed");
+            }
+            valid.participants.addAll(members.all);
+            return valid;
+        }
+
+        Set<Long> seen = new HashSet<>();
+        long weightSum = 0;
+        long exactSum = 0;
+        for (String[] participant : row.participants) {
+            User user = members.resolve(participant[0], "participant");
+            if (!seen.add(user.getId())) {
+                throw new IllegalArgumentException("participant '" + participant[0] + "' is listed twice");
+            }
+            valid.participants.add(user);
+
+            switch (valid.splitType) {
+                case EQUAL -> { }
+                case EXACT -> {
+                    Money amount = Money.of(parseNumber(participant[1], "amount of " + participant[0]), currency);
+                    if (amount.getMinorUnits() < 0) {
+                        throw new IllegalArgumentException("amount of " + participant[0] + " is negative");
+                    }
+                    valid.exactAmounts.put(user.getId(), amount.getValue());
+                    exactSum += amount.getMinorUnits();
+                }
+                case PERCENTAGE -> {
+                    BigDecimal percentage = parseNumber(participant[1], "percentage of " + participant[0]);
+                    if (percentage.signum() < 0 || percentage.scale() > 2) {
+                        throw new IllegalArgumentException("percentage of " + participant[0]
+                                + " must be positive with at most 2 decimals");
+                    }
+                    valid.percentages.put(user.getId(), percentage);
+                    weightSum += percentage.signum();
+                }
+                case SHARES -> {
+                    int shares;
+                    try {
+                        shares = parseNumber(participant[1], "shares of " + participant[0]).intValueExact();
+                    } catch (ArithmeticException e) {
+                        throw new IllegalArgumentException("shares of " + participant[0] + " must be a whole number");
+                    }
+                    if (shares < 0) {
+                        throw new IllegalArgumentException("shares of " + participant[0] + " are negative");
+                    }
+                    valid.shares.put(user.getId(), shares);
+                    weightSum += shares;
+                }
+            }
+        }
+
+        if (valid.splitType == SplitType.EXACT && exactSum != valid.amount.getMinorUnits()) {
+            throw new IllegalArgumentException("split amounts add up to " + Money.ofMinorUnits(exactSum).getValue()
+                    + " instead of " + valid.amount.getValue());
+        }
+        if ((valid.splitType == SplitType.PERCENTAGE || valid.splitType == SplitType.SHARES) && weightSum == 0) {
+            throw new IllegalArgumentException("every participant has a zero " + valid.splitType.name().toLowerCase(Locale.ROOT));
+        }
+        return valid;
+    }
+
+    private static BigDecimal parseNumber(String value, String field) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException(field + " is missing");
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " '" + value + "' is not a number");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * The group's members by id, email and name, built once per import. Names shared by
+     * several members do not resolve.
+     */
+    private static final class Members {
+
+        private final List<User> all;
+        private final Map<String, User> byKey = new HashMap<>();
+        private final Set<String> ambiguousNames = new HashSet<>();
+
+        Members(List<User> users) {
+            this.all = users;
+            for (User user : users) {
+                byKey.put(user.getId().toString(), user);
+                byKey.put(user.getEmail().toLowerCase(Locale.ROOT), user);
+            }
+            for (User user : users) {
+                String name = user.getName().trim().toLowerCase(Locale.ROOT);
+                if (byKey.putIfAbsent(name, user) != null && byKey.get(name) != user) {
+                    ambiguousNames.add(name);
+                }
+            }
+        }
+
+        User resolve(String key, String role) {
+            if (isBlank(key)) {
+                throw new IllegalArgumentException(role + " is missing");
+            }
+            String normalized = key.trim().toLowerCase(Locale.ROOT);
+            if (ambiguousNames.contains(normalized)) {
+                throw new IllegalArgumentException(role + " '" + key + "' matches several members, use their email");
+            }
+            User user = byKey.get(normalized);
+            if (user == null) {
+                throw new IllegalArgumentException(role + " '" + key + "' is not a member of the group");
+            }
+            return user;
+        }
+    }
+
+    /**
+     * A row as read from the file. Participants are pairs of member and value, the value
+     * being an amount, a percentage or a number of shares depending on the split type.
+     */
+    private static final class ImportRow {
+        int line;
+        String date;
+        String description;
+        String amount;
+        String paidBy;
+        String splitType;
+        List<String[]> participants = new ArrayList<>();
+    }
+
+    private static final class ValidRow {
+        LocalDate date;
+        String description;
+        Money amount;
+        User payer;
+        SplitType splitType;
+        List<User> participants;
+        Map<Long, BigDecimal> exactAmounts = new HashMap<>();
+        Map<Long, BigDecimal> percentages = new HashMap<>();
+        Map<Long, Integer> shares = new HashMap<>();
+    }
+
+    private interface RowReader extends Closeable {
+        /**
+         * @return the next row, or null at the end of the file
+         * @throws IllegalArgumentException if the file itself is malformed
+         */
+        ImportRow next() throws IOException;
+    }
+
+    /**
+     * Reads the columns of the CSV export: Date, Description, Amount, Paid By, Split Type and
+     * Participants, matched by header name in any order. Participants are separated by
+     * semicolons, each written as {@code member} or {@code member: value}.
+     */
+    private static final class CsvRowReader implements RowReader {
+
+        private final CsvReader csv;
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRowReader(MultipartFile file) throws IOException {
+            this.csv = new CsvReader(new BufferedReader(
+                    new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)));
+            List<String> header = csv.next();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+                columns.put(name, i);
+            }
+            for (String required : List.of("date", "description", "amount", "paidby")) {
+                if (!columns.containsKey(required)) {
+                    csv.close();
+                    throw new IllegalArgumentException("The CSV header has no '" + required + "' column");
+                }
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (columns.isEmpty()) {
+                return null;
+            }
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            ImportRow row = new ImportRow();
+            row.line = csv.getRecordLine();
+            row.date = field(fields, "date");
+            row.description = field(fields, "description");
+            row.amount = field(fields, "amount");
+            row.paidBy = field(fields, "paidby");
+            row.splitType = field(fields, "splittype");
+            String participants = field(fields, "participants");
+            if (!isBlank(participants)) {
+                for (String entry : participants.split(";")) {
+                    if (entry.isBlank()) {
+                        continue;
+                    }
+                    int colon = entry.lastIndexOf(':');
+                    row.participants.add(colon < 0
+                            ? new String[]{entry.trim(), null}
+                            : new String[]{entry.substring(0, colon).trim(), entry.substring(colon + 1).trim()});
+                }
+            }
+            return row;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            return index != null && index < fields.size() ? fields.get(index) : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+
+    /**
+     * Reads a JSON array of objects with {@code date}, {@code description}, {@code amount},
+     * {@code paidBy}, {@code splitType} and {@code participants}, the latter an array of
+     * {@code {"member": ..., "value": ...}}. Only one element is parsed into memory at a time.
+     */
+    private final class JsonRowReader implements RowReader {
+
+        private final JsonParser parser;
+        private int index;
+
+        JsonRowReader(MultipartFile file) throws IOException {
+            this.parser = objectMapper.getFactory().createParser(file.getInputStream());
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                parser.close();
+                throw new IllegalArgumentException("The JSON file must contain an array of expenses");
+            }
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            JsonNode node = parser.readValueAsTree();
+            ImportRow row = new ImportRow();
+            row.line = ++index;
+            if (node == null || !node.isObject()) {
+                return row;
+            }
+            row.date = text(node, "date");
+            row.description = text(node, "description");
+            row.amount = text(node, "amount");
+            row.paidBy = text(node, "paidBy");
+            row.splitType = text(node, "splitType");
+            JsonNode participants = node.get("participants");
+            if (participants != null && participants.isArray()) {
+                for (JsonNode participant : participants) {
+                    row.participants.add(participant.isObject()
+                            ? new String[]{text(participant, "member"), text(participant, "value")}
+                            : new String[]{participant.asText(), null});
+                }
+            }
+            return row;
+        }
+
+        private String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.splitfriend.service;
 
+import com.splitfriend.dto.ExpenseSummaryDTO;
+import com.splitfriend.event.GroupBalancesChangedEvent;
 import com.splitfriend.model.*;
 import com.splitfriend.model.enums.SplitType;
 import com.splitfriend.repository.ExpenseRepository;
 import com.splitfriend.repository.ExpenseSplitRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -16,6 +21,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -25,16 +31,31 @@ public class ExpenseService {
     private final ExpenseRepository expenseRepository;
     private final ExpenseSplitRepository expenseSplitRepository;
     private final PushNotificationService pushNotificationService;
+    private final BalanceLedgerService balanceLedgerService;
+    private final GroupSummaryService groupSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SplitAllocator splitAllocator;
 
     @Value("${app.upload.path:./uploads}")
     private String uploadPath;
 
+    @Value("${app.expenses.page-size:25}")
+    private int expensePageSize;
+
     public ExpenseService(ExpenseRepository expenseRepository,
                           ExpenseSplitRepository expenseSplitRepository,
-                          PushNotificationService pushNotificationService) {
+                          PushNotificationService pushNotificationService,
+                          BalanceLedgerService balanceLedgerService,
+                          GroupSummaryService groupSummaryService,
+                          ApplicationEventPublisher eventPublisher,
+                          SplitAllocator splitAllocator) {
         this.expenseRepository = expenseRepository;
         this.expenseSplitRepository = expenseSplitRepository;
         this.pushNotificationService = pushNotificationService;
+        this.balanceLedgerService = balanceLedgerService;
+        this.groupSummaryService = groupSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.splitAllocator = splitAllocator;
     }
 
     public Expense createExpense(Group group, User paidBy, String description,
@@ -43,11 +64,16 @@ public class ExpenseService {
                                   Map<Long, BigDecimal> percentages, Map<Long, Integer> shares,
                                   List<User> participants, MultipartFile bill) {
 
+        Money total = Money.of(amount, group.getCurrency());
+        if (!total.isPositive()) {
+            throw new IllegalArgumentException("Expense amount must be positive");
+        }
+
         Expense expense = Expense.builder()
                 .group(group)
                 .paidBy(paidBy)
                 .description(description)
-                .amount(amount)
+                .amount(total)
                 .splitType(splitType)
                 .expenseDate(expenseDate != null ? expenseDate : LocalDate.now())
                 .build();
@@ -61,69 +87,64 @@ public class ExpenseService {
         expense = expenseRepository.save(expense);
 
         // Create splits based on split type
-        List<ExpenseSplit> splits = createSplits(expense, splitType, amount,
-                splitAmounts, percentages, shares, participants);
+        List<ExpenseSplit> splits = expenseSplitRepository.saveAll(buildSplits(expense, group.getCurrency(),
+                splitAmounts, percentages, shares, participants));
         expense.setSplits(splits);
 
+        balanceLedgerService.recordExpense(expense);
+        groupSummaryService.recordExpense(expense);
+        eventPublisher.publishEvent(new GroupBalancesChangedEvent(group.getId()));
+
         // Send push notifications to participants (excluding payer)
         pushNotificationService.notifyExpenseParticipants(expense, paidBy, participants);
 
         return expense;
     }
 
-    private List<ExpenseSplit> createSplits(Expense expense, SplitType splitType,
-                                            BigDecimal totalAmount, Map<Long, BigDecimal> splitAmounts,
-                                            Map<Long, BigDecimal> percentages, Map<Long, Integer> shares,
-                                            List<User> participants) {
+    /**
+     * Splits are computed in steps of the smallest payable amount of the group's currency
+     * (one cent, or one yen for JPY) so every split can actually be paid. Steps that do not
+     * divide evenly go to the participants with the largest remainders, ties going to the
+     * earlier participant, so the same expense is always split the same way.
+     * The splits are returned unsaved.
+     */
+    public List<ExpenseSplit> buildSplits(Expense expense, String currency, Map<Long, BigDecimal> splitAmounts,
+                                          Map<Long, BigDecimal> percentages, Map<Long, Integer> shares,
+                                          List<User> participants) {
         List<ExpenseSplit> splits = new ArrayList<>();
+        Money total = expense.getAmount();
+        long unit = Money.unit(currency);
+        long totalSteps = total.getMinorUnits() / unit;
 
-        switch (splitType) {
+        switch (expense.getSplitType()) {
             case EQUAL:
-                splits = createEqualSplits(expense, totalAmount, participants);
+                splits = createEqualSplits(expense, totalSteps, unit, participants);
                 break;
             case EXACT:
-                splits = createExactSplits(expense, splitAmounts, participants);
+                splits = createExactSplits(expense, splitAmounts, currency, participants);
                 break;
             case PERCENTAGE:
-                splits = createPercentageSplits(expense, totalAmount, percentages, participants);
+                splits = createPercentageSplits(expense, totalSteps, unit, percentages, participants);
                 break;
             case SHARES:
-                splits = createSharesSplits(expense, totalAmount, shares, participants);
+                splits = createSharesSplits(expense, totalSteps, unit, shares, participants);
                 break;
         }
 
-        return expenseSplitRepository.saveAll(splits);
+        return splits;
     }
 
-    private List<ExpenseSplit> createEqualSplits(Expense expense, BigDecimal totalAmount, List<User> participants) {
+    private List<ExpenseSplit> createEqualSplits(Expense expense, long totalSteps, long unit, List<User> participants) {
         List<ExpenseSplit> splits = new ArrayList<>();
-        int count = participants.size();
-
-        if (count == 0) return splits;
-
-        BigDecimal baseAmount = totalAmount.divide(BigDecimal.valueOf(count), 4, RoundingMode.DOWN);
-        BigDecimal remainder = totalAmount.subtract(baseAmount.multiply(BigDecimal.valueOf(count)));
-
-        // Randomly distribute remainder
-        List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < count; i++) indices.add(i);
-        Collections.shuffle(indices);
-
-        BigDecimal centsRemainder = remainder.multiply(BigDecimal.valueOf(100)).setScale(0, RoundingMode.HALF_UP);
-        int remainderCents = centsRemainder.intValue();
-
-        for (int i = 0; i < count; i++) {
-            User user = participants.get(i);
-            BigDecimal splitAmount = baseAmount;
-
-            if (indices.indexOf(i) < remainderCents) {
-                splitAmount = splitAmount.add(new BigDecimal("0.01"));
-            }
+        long[] weights = new long[participants.size()];
+        Arrays.fill(weights, 1);
+        long[] steps = splitAllocator.allocate(totalSteps, weights);
 
+        for (int i = 0; i < steps.length; i++) {
             ExpenseSplit split = ExpenseSplit.builder()
                     .expense(expense)
-                    .user(user)
-                    .amount(splitAmount)
+                    .user(participants.get(i))
+                    .amount(Money.ofMinorUnits(steps[i] * unit))
                     .build();
             splits.add(split);
         }
@@ -132,12 +153,12 @@ public class ExpenseService {
     }
 
     private List<ExpenseSplit> createExactSplits(Expense expense, Map<Long, BigDecimal> splitAmounts,
-                                                  List<User> participants) {
+                                                  String currency, List<User> participants) {
         List<ExpenseSplit> splits = new ArrayList<>();
 
         for (User user : participants) {
-            BigDecimal amount = splitAmounts.getOrDefault(user.getId(), BigDecimal.ZERO);
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
+            Money amount = Money.of(splitAmounts.getOrDefault(user.getId(), BigDecimal.ZERO), currency);
+            if (amount.isPositive()) {
                 ExpenseSplit split = ExpenseSplit.builder()
                         .expense(expense)
                         .user(user)
@@ -150,30 +171,28 @@ public class ExpenseService {
         return splits;
     }
 
-    private List<ExpenseSplit> createPercentageSplits(Expense expense, BigDecimal totalAmount,
+    /**
+     * Percentages are weighted in hundredths of a percent, the precision they are stored with.
+     * They are taken relative to their sum, so the splits always add up to the expense.
+     */
+    private List<ExpenseSplit> createPercentageSplits(Expense expense, long totalSteps, long unit,
                                                        Map<Long, BigDecimal> percentages, List<User> participants) {
         List<ExpenseSplit> splits = new ArrayList<>();
-        BigDecimal totalAssigned = BigDecimal.ZERO;
-
-        for (int i = 0; i < participants.size(); i++) {
-            User user = participants.get(i);
-            BigDecimal percentage = percentages.getOrDefault(user.getId(), BigDecimal.ZERO);
-            BigDecimal amount;
-
-            if (i == participants.size() - 1) {
-                // Last person gets remainder to avoid rounding issues
-                amount = totalAmount.subtract(totalAssigned);
-            } else {
-                amount = totalAmount.multiply(percentage).divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP);
-                totalAssigned = totalAssigned.add(amount);
-            }
+        BigDecimal[] userPercentages = new BigDecimal[participants.size()];
+        long[] weights = new long[participants.size()];
+        for (int i = 0; i < weights.length; i++) {
+            userPercentages[i] = percentages.getOrDefault(participants.get(i).getId(), BigDecimal.ZERO);
+            weights[i] = userPercentages[i].movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        }
+        long[] steps = splitAllocator.allocate(totalSteps, weights);
 
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] > 0) {
                 ExpenseSplit split = ExpenseSplit.builder()
                         .expense(expense)
-                        .user(user)
-                        .amount(amount)
-                        .percentage(percentage)
+                        .user(participants.get(i))
+                        .amount(Money.ofMinorUnits(steps[i] * unit))
+                        .percentage(userPercentages[i])
                         .build();
                 splits.add(split);
             }
@@ -182,36 +201,22 @@ public class ExpenseService {
         return splits;
     }
 
-    private List<ExpenseSplit> createSharesSplits(Expense expense, BigDecimal totalAmount,
+    private List<ExpenseSplit> createSharesSplits(Expense expense, long totalSteps, long unit,
                                                    Map<Long, Integer> shares, List<User> participants) {
         List<ExpenseSplit> splits = new ArrayList<>();
+        long[] weights = new long[participants.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = shares.getOrDefault(participants.get(i).getId(), 0);
+        }
+        long[] steps = splitAllocator.allocate(totalSteps, weights);
 
-        int totalShares = shares.values().stream().mapToInt(Integer::intValue).sum();
-        if (totalShares == 0) return splits;
-
-        BigDecimal shareValue = totalAmount.divide(BigDecimal.valueOf(totalShares), 4, RoundingMode.DOWN);
-        BigDecimal totalAssigned = BigDecimal.ZERO;
-
-        List<User> sortedParticipants = new ArrayList<>(participants);
-
-        for (int i = 0; i < sortedParticipants.size(); i++) {
-            User user = sortedParticipants.get(i);
-            int userShares = shares.getOrDefault(user.getId(), 0);
-            BigDecimal amount;
-
-            if (i == sortedParticipants.size() - 1) {
-                amount = totalAmount.subtract(totalAssigned);
-            } else {
-                amount = shareValue.multiply(BigDecimal.valueOf(userShares));
-                totalAssigned = totalAssigned.add(amount);
-            }
-
-            if (amount.compareTo(BigDecimal.ZERO) > 0) {
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i] > 0) {
                 ExpenseSplit split = ExpenseSplit.builder()
                         .expense(expense)
-                        .user(user)
-                        .amount(amount)
-                        .shares(userShares)
+                        .user(participants.get(i))
+                        .amount(Money.ofMinorUnits(steps[i] * unit))
+                        .shares((int) weights[i])
                         .build();
                 splits.add(split);
             }
@@ -239,6 +244,27 @@ public class ExpenseService {
         return expenseRepository.findById(id);
     }
 
+    /**
+     * Returns the first page of a group's expense list, newest first.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ExpenseSummaryDTO> getExpensePage(Long groupId) {
+        return expenseRepository.findSummariesByGroupId(groupId, PageRequest.of(0, expensePageSize));
+    }
+
+    /**
+     * Returns the page of a group's expense list that follows the given row.
+     * @param afterDate expense date of the previous page's last row
+     * @param afterCreatedAt creation time of the previous page's last row
+     * @param afterId id of the previous page's last row
+     */
+    @Transactional(readOnly = true)
+    public Slice<ExpenseSummaryDTO> getExpensePage(Long groupId, LocalDate afterDate,
+                                                   LocalDateTime afterCreatedAt, Long afterId) {
+        return expenseRepository.findSummariesByGroupIdAfter(groupId, afterDate, afterCreatedAt, afterId,
+                PageRequest.of(0, expensePageSize));
+    }
+
     public Optional<Expense> findByIdWithSplits(Long id) {
         return expenseRepository.findByIdWithSplits(id);
     }
@@ -252,19 +278,25 @@ public class ExpenseService {
     }
 
     public void deleteExpense(Long expenseId) {
-        expenseRepository.deleteById(expenseId);
+        expenseRepository.findByIdWithSplits(expenseId).ifPresent(expense -> {
+            balanceLedgerService.reverseExpense(expense);
+            expenseRepository.delete(expense);
+            groupSummaryService.reverseExpense(expense);
+            eventPublisher.publishEvent(new GroupBalancesChangedEvent(expense.getGroup().getId()));
+        });
     }
 
-    public BigDecimal getTotalExpensesByGroup(Long groupId) {
-        return expenseRepository.getTotalExpensesByGroupId(groupId);
+    @Transactional(readOnly = true)
+    public Money getTotalExpensesByGroup(Long groupId) {
+        return groupSummaryService.getTotalSpent(groupId);
     }
 
     public long countExpenses() {
         return expenseRepository.countExpenses();
     }
 
-    public BigDecimal getTotalExpensesAmount() {
-        return expenseRepository.getTotalExpensesAmount();
+    public Money getTotalExpensesAmount() {
+        return Money.ofMinorUnits(expenseRepository.getTotalExpensesAmount());
     }
 
     public List<Expense> findExpensesByDateRange(Long groupId, LocalDate startDate, LocalDate endDate) {
@@ -0,0 +1,165 @@
+package com.splitfriend.service;
+
+import com.splitfriend.event.ExportJobQueuedEvent;
+import com.splitfriend.model.ExportJob;
+import com.splitfriend.model.User;
+import com.splitfriend.model.enums.ExportJobStatus;
+import com.splitfriend.model.enums.ExportJobType;
+import com.splitfriend.repository.ExportJobRepository;
+import com.splitfriend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes queued exports on the export executor. Not transactional itself: every status
+ * change commits on its own so pollers see progress while the export is still being read.
+ */
+@Component
+public class ExportJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobRunner.class);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final ExportJobRepository exportJobRepository;
+    private final UserRepository userRepository;
+    private final ExportJobService exportJobService;
+    private final ExportService exportService;
+    private final PushNotificationService pushNotificationService;
+    private final Executor executor;
+    private final TransactionTemplate transaction;
+
+    public ExportJobRunner(ExportJobRepository exportJobRepository,
+                           UserRepository userRepository,
+                           ExportJobService exportJobService,
+                           ExportService exportService,
+                           PushNotificationService pushNotificationService,
+                           @Qualifier("exportJobExecutor") Executor executor,
+                           PlatformTransactionManager transactionManager) {
+        this.exportJobRepository = exportJobRepository;
+        this.userRepository = userRepository;
+        this.exportJobService = exportJobService;
+        this.exportService = exportService;
+        this.pushNotificationService = pushNotificationService;
+        this.executor = executor;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener
+    public void onJobQueued(ExportJobQueuedEvent event) {
+        enqueue(event.jobId());
+    }
+
+    /**
+     * Puts jobs interrupted by a shutdown back on the executor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        List<Long> ids = transaction.execute(status -> {
+            exportJobRepository.requeue(EnumSet.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING),
+                    ExportJobStatus.QUEUED);
+            return exportJobRepository.findIdsByStatus(ExportJobStatus.QUEUED);
+        });
+        if (!ids.isEmpty()) {
+            log.info("Resuming {} unfinished export jobs", ids.size());
+            ids.forEach(this::enqueue);
+        }
+    }
+
+    private void enqueue(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (TaskRejectedException e) {
+            log.warn("Export queue is full, rejecting export job {}", jobId);
+            fail(jobId, "Too many exports are running, please try again later");
+        }
+    }
+
+    private void run(Long jobId) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        ExportJob job = transaction.execute(status -> exportJobRepository.markRunning(
+                        jobId, startedAt, ExportJobStatus.QUEUED, ExportJobStatus.RUNNING) == 1
+                ? exportJobRepository.findById(jobId).orElse(null)
+                : null);
+        if (job == null) {
+            // Deleted, or already claimed after a restart
+            return;
+        }
+
+        Path file = exportJobService.getFile(job);
+        Path partial = file.resolveSibling(file.getFileName() + ".part");
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                if (job.getType() == ExportJobType.GROUP_CSV) {
+                    exportService.writeExpensesCsv(job.getGroupId(), out, job.isCompressed(),
+                            progress -> saveProgress(jobId, progress));
+                } else {
+                    User user = userRepository.findById(job.getUserId())
+                            .orElseThrow(() -> new IllegalStateException("User no longer exists"));
+                    exportService.writeAccountJson(user, out, job.isCompressed(),
+                            progress -> saveProgress(jobId, progress));
+                }
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            log.error("Export job {} failed: {}", jobId, e.getMessage(), e);
+            try {
+                Files.deleteIfExists(partial);
+            } catch (Exception ignored) {
+                // Removed by the expiry sweep
+            }
+            fail(jobId, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return;
+        }
+
+        String fileName = downloadName(job);
+        long size = file.toFile().length();
+        LocalDateTime completedAt = LocalDateTime.now();
+        transaction.executeWithoutResult(status -> exportJobRepository.markCompleted(
+                jobId, fileName, size, completedAt, completedAt.plus(exportJobService.getTtl()),
+                ExportJobStatus.COMPLETED));
+        log.info("Export job {} completed: {} bytes in {} ms", jobId, size,
+                Duration.between(startedAt, completedAt).toMillis());
+
+        pushNotificationService.notifyExportReady(job.getUserId(), fileName);
+    }
+
+    private void saveProgress(Long jobId, int progress) {
+        transaction.executeWithoutResult(status -> exportJobRepository.updateProgress(jobId, progress));
+    }
+
+    private void fail(Long jobId, String error) {
+        String message = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        LocalDateTime now = LocalDateTime.now();
+        transaction.executeWithoutResult(status -> exportJobRepository.markFailed(
+                jobId, message, now, now.plus(exportJobService.getTtl()), ExportJobStatus.FAILED));
+    }
+
+    private static String downloadName(ExportJob job) {
+        String base = job.getType() == ExportJobType.GROUP_CSV
+                ? "expenses_group_" + job.getGroupId()
+                : "splitfriend-account-" + job.getUserId();
+        return base + "." + job.getExtension();
+    }
+}
@@ -0,0 +1,154 @@
+package com.splitfriend.service;
+
+import com.splitfriend.event.ExportJobQueuedEvent;
+import com.splitfriend.model.ExportJob;
+import com.splitfriend.model.enums.ExportJobStatus;
+import com.splitfriend.model.enums.ExportJobType;
+import com.splitfriend.repository.ExportJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Queues exports and keeps track of their files. The exports themselves are written by
+ * {@link ExportJobRunner}; the files live under {@code <upload path>/exports} and are removed
+ * once their job expires.
+ */
+@Service
+@Transactional
+public class ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+    private static final EnumSet<ExportJobStatus> UNFINISHED = EnumSet.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+
+    private final ExportJobRepository exportJobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path exportDirectory;
+    private final Duration ttl;
+
+    public ExportJobService(ExportJobRepository exportJobRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${app.upload.path:./uploads}") String uploadPath,
+                            @Value("${app.export.jobs.ttl:24h}") Duration ttl) {
+        this.exportJobRepository = exportJobRepository;
+        this.eventPublisher = eventPublisher;
+        this.exportDirectory = Paths.get(uploadPath, "exports");
+        this.ttl = ttl;
+    }
+
+    /**
+     * Queues a CSV export of a group's expenses. Callers check membership first.
+     */
+    public ExportJob submitGroupCsv(Long userId, Long groupId, boolean gzip) {
+        return submit(userId, ExportJobType.GROUP_CSV, groupId, gzip);
+    }
+
+    /**
+     * Queues an export of everything in a user's account.
+     */
+    public ExportJob submitAccountJson(Long userId, boolean zip) {
+        return submit(userId, ExportJobType.ACCOUNT_JSON, null, zip);
+    }
+
+    /**
+     * Returns the unfinished job producing the same file if there is one, so repeated clicks
+     * do not queue the same export several times.
+     */
+    private ExportJob submit(Long userId, ExportJobType type, Long groupId, boolean compressed) {
+        List<ExportJob> pending = exportJobRepository.findMatching(userId, type, groupId, compressed, UNFINISHED);
+        if (!pending.isEmpty()) {
+            return pending.get(0);
+        }
+
+        ExportJob job = exportJobRepository.save(ExportJob.builder()
+                .userId(userId)
+                .groupId(groupId)
+                .type(type)
+                .compressed(compressed)
+                .build());
+        eventPublisher.publishEvent(new ExportJobQueuedEvent(job.getId()));
+        log.info("Queued {} export job {} for user {}", type, job.getId(), userId);
+        return job;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExportJob> findRecentByUser(Long userId) {
+        return exportJobRepository.findTop20ByUserIdOrderByIdDesc(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ExportJob> findByIdAndUser(Long jobId, Long userId) {
+        return exportJobRepository.findByIdAndUserId(jobId, userId);
+    }
+
+    /**
+     * Where the file of a job is written. Workers write next to it and move it in place when done.
+     */
+    public Path getFile(ExportJob job) {
+        return exportDirectory.resolve(job.getId() + "." + job.getExtension());
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Deletes expired jobs with their files, then any file in the export directory older than
+     * the time to live, which covers files left by deleted jobs or users.
+     */
+    @Scheduled(fixedDelayString = "${app.export.jobs.cleanup-interval:PT15M}",
+               initialDelayString = "${app.export.jobs.cleanup-interval:PT15M}")
+    public void deleteExpired() {
+        List<ExportJob> expired = exportJobRepository.findExpired(LocalDateTime.now());
+        for (ExportJob job : expired) {
+            deleteQuietly(getFile(job));
+        }
+        if (!expired.isEmpty()) {
+            exportJobRepository.deleteByIds(expired.stream().map(ExportJob::getId).toList());
+        }
+
+        int orphans = 0;
+        if (Files.isDirectory(exportDirectory)) {
+            Instant cutoff = Instant.now().minus(ttl);
+            try (Stream<Path> files = Files.list(exportDirectory)) {
+                for (Path file : files.toList()) {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff) && deleteQuietly(file)) {
+                        orphans++;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not list export files under {}: {}", exportDirectory, e.getMessage());
+            }
+        }
+
+        if (!expired.isEmpty() || orphans > 0) {
+            log.info("Deleted {} expired export jobs and {} stale export files", expired.size(), orphans);
+        }
+    }
+
+    private boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+}
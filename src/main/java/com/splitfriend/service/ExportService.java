@@ -1,81 +1,354 @@
 package com.splitfriend.service;
 
-import com.splitfriend.model.Expense;
-import com.splitfriend.model.ExpenseSplit;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitfriend.dto.ExpenseExportDTO;
+import com.splitfriend.dto.ExpenseExportRow;
+import com.splitfriend.dto.ExpenseSplitExportDTO;
+import com.splitfriend.dto.GroupSummaryDTO;
+import com.splitfriend.dto.SettlementExportDTO;
+import com.splitfriend.model.GroupSummary;
 import com.splitfriend.model.User;
+import com.splitfriend.model.enums.SplitType;
+import com.splitfriend.repository.ExpenseRepository;
+import com.splitfriend.repository.ExpenseSplitRepository;
+import com.splitfriend.repository.GroupSummaryRepository;
+import com.splitfriend.repository.SettlementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.StringWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class ExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final String ACCOUNT_EXPORT_ENTRY = "splitfriend-account.json";
 
-    public String exportExpensesToCsv(List<Expense> expenses) {
-        StringWriter writer = new StringWriter();
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseSplitRepository expenseSplitRepository;
+    private final SettlementRepository settlementRepository;
+    private final GroupSummaryRepository groupSummaryRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.page-size:500}")
+    private int exportPageSize;
+
+    public ExportService(ExpenseRepository expenseRepository,
+                         ExpenseSplitRepository expenseSplitRepository,
+                         SettlementRepository settlementRepository,
+                         GroupSummaryRepository groupSummaryRepository,
+                         ObjectMapper objectMapper) {
+        this.expenseRepository = expenseRepository;
+        this.expenseSplitRepository = expenseSplitRepository;
+        this.settlementRepository = settlementRepository;
+        this.groupSummaryRepository = groupSummaryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes a group's expenses as CSV, one line per expense, reading them through a forward-only
+     * cursor. Rows are scalar projections that never enter the persistence context, and at most
+     * one expense is held in memory, so memory use does not grow with the group. The stream is
+     * flushed but not closed.
+     * @param progress receives the percentage written each time it changes, up to 99
+     */
+    @Transactional(readOnly = true)
+    public void writeExpensesCsv(Long groupId, OutputStream out, boolean gzip, IntConsumer progress) throws IOException {
+        long total = groupSummaryRepository.findById(groupId).map(GroupSummary::getExpenseCount).orElse(0L);
+        ProgressCounter counter = new ProgressCounter(total, progress);
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
 
         // CSV Header
-        writer.append("Date,Description,Amount,Paid By,Split Type,Participants\n");
-
-        for (Expense expense : expenses) {
-            writer.append(escapeCsv(expense.getExpenseDate().format(DATE_FORMATTER)));
-            writer.append(",");
-            writer.append(escapeCsv(expense.getDescription()));
-            writer.append(",");
-            writer.append(expense.getAmount().toString());
-            writer.append(",");
-            writer.append(escapeCsv(expense.getPaidBy().getName()));
-            writer.append(",");
-            writer.append(expense.getSplitType().name());
-            writer.append(",");
-
-            StringBuilder participants = new StringBuilder();
-            for (ExpenseSplit split : expense.getSplits()) {
-                if (participants.length() > 0) participants.append("; ");
-                participants.append(split.getUser().getName())
-                        .append(": ")
-                        .append(split.getAmount());
+        writer.write("Date,Description,Amount,Paid By,Split Type,Participants\n");
+
+        try (Stream<ExpenseExportRow> rows = expenseRepository.streamExportRowsByGroupId(groupId)) {
+            Iterator<ExpenseExportRow> iterator = rows.iterator();
+            ExpenseExportRow expense = null;
+            ParticipantColumn participants = new ParticipantColumn();
+            while (iterator.hasNext()) {
+                ExpenseExportRow row = iterator.next();
+                // Rows of one expense are adjacent, so a new id means the previous expense is complete
+                if (expense != null && !expense.getExpenseId().equals(row.getExpenseId())) {
+                    writeExpenseLine(writer, expense, participants);
+                    participants.clear();
+                    counter.advance();
+                }
+                expense = row;
+                if (row.getParticipantName() != null) {
+                    participants.add(row);
+                }
+            }
+            if (expense != null) {
+                writeExpenseLine(writer, expense, participants);
             }
-            writer.append(escapeCsv(participants.toString()));
-            writer.append("\n");
         }
 
-        return writer.toString();
+        writer.flush();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+
+    private void writeExpenseLine(Writer writer, ExpenseExportRow expense, ParticipantColumn participants) throws IOException {
+        // Without every weight the expense can only be re-imported by its amounts
+        SplitType splitType = expense.getSplitType();
+        boolean weighted = splitType == SplitType.PERCENTAGE || splitType == SplitType.SHARES;
+        if (weighted && !participants.weightsComplete) {
+            splitType = SplitType.EXACT;
+        }
+
+        writer.append(escapeCsv(expense.getExpenseDate().format(DATE_FORMATTER)));
+        writer.append(",");
+        writer.append(escapeCsv(expense.getDescription()));
+        writer.append(",");
+        writer.append(expense.getAmount().toString());
+        writer.append(",");
+        writer.append(escapeCsv(expense.getPaidByName()));
+        writer.append(",");
+        writer.append(splitType.name());
+        writer.append(",");
+        writer.append(escapeCsv((splitType == expense.getSplitType() && weighted
+                ? participants.weights : participants.amounts).toString()));
+        writer.append("\n");
     }
 
-    public String exportUserDataToJson(User user, List<Expense> userExpenses) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n");
-        json.append("  \"user\": {\n");
-        json.append("    \"id\": ").append(user.getId()).append(",\n");
-        json.append("    \"email\": \"").append(escapeJson(user.getEmail())).append("\",\n");
-        json.append("    \"name\": \"").append(escapeJson(user.getName())).append("\",\n");
-        json.append("    \"createdAt\": \"").append(user.getCreatedAt()).append("\"\n");
-        json.append("  },\n");
-        json.append("  \"expenses\": [\n");
-
-        for (int i = 0; i < userExpenses.size(); i++) {
-            Expense expense = userExpenses.get(i);
-            json.append("    {\n");
-            json.append("      \"id\": ").append(expense.getId()).append(",\n");
-            json.append("      \"description\": \"").append(escapeJson(expense.getDescription())).append("\",\n");
-            json.append("      \"amount\": ").append(expense.getAmount()).append(",\n");
-            json.append("      \"date\": \"").append(expense.getExpenseDate()).append("\",\n");
-            json.append("      \"splitType\": \"").append(expense.getSplitType()).append("\"\n");
-            json.append("    }");
-            if (i < userExpenses.size() - 1) {
-                json.append(",");
+    /**
+     * The Participants column of one expense, written as {@code name: value} pairs in the form
+     * the CSV import reads back: split amounts for equal and exact splits, and the percentage
+     * or number of shares for weighted ones.
+     */
+    private static final class ParticipantColumn {
+
+        private final StringBuilder amounts = new StringBuilder();
+        private final StringBuilder weights = new StringBuilder();
+        private boolean weightsComplete = true;
+
+        void add(ExpenseExportRow row) {
+            if (amounts.length() > 0) {
+                amounts.append("; ");
+                weights.append("; ");
+            }
+            amounts.append(row.getParticipantName()).append(": ").append(row.getSplitAmount());
+
+            Object weight = row.getSplitType() == SplitType.PERCENTAGE
+                    ? (row.getSplitPercentage() != null ? row.getSplitPercentage().toPlainString() : null)
+                    : row.getSplitShares();
+            if (weight == null) {
+                weightsComplete = false;
             }
-            json.append("\n");
+            weights.append(row.getParticipantName()).append(": ").append(weight);
+        }
+
+        void clear() {
+            amounts.setLength(0);
+            weights.setLength(0);
+            weightsComplete = true;
+        }
+    }
+
+    /**
+     * Writes everything in a user's account as one JSON document: profile, groups, expenses with
+     * their splits, and settlements. Expenses and settlements are read in keyset pages of scalar
+     * projections and written as they arrive, so only one page is in memory at a time. With
+     * {@code zip} the document is the single entry of a zip archive. The stream is not closed.
+     * @param progress receives the percentage written each time it changes, up to 99
+     */
+    @Transactional(readOnly = true)
+    public void writeAccountJson(User user, OutputStream out, boolean zip, IntConsumer progress) throws IOException {
+        long total = expenseRepository.countExpensesInvolvingUser(user.getId())
+                + settlementRepository.countInvolvingUser(user.getId());
+        ProgressCounter counter = new ProgressCounter(total, progress);
+
+        ZipOutputStream archive = null;
+        if (zip) {
+            archive = new ZipOutputStream(out);
+            archive.putNextEntry(new ZipEntry(ACCOUNT_EXPORT_ENTRY));
         }
 
-        json.append("  ]\n");
-        json.append("}\n");
+        try (JsonGenerator json = objectMapper.getFactory()
+                .createGenerator(archive != null ? archive : out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            json.writeStringField("exportedAt", LocalDateTime.now().toString());
+            writeProfile(json, user);
+            writeGroups(json, user.getId());
+            writeExpenses(json, user.getId(), counter);
+            writeSettlements(json, user.getId(), counter);
+            json.writeEndObject();
+        }
+
+        if (archive != null) {
+            archive.closeEntry();
+            archive.finish();
+        }
+    }
 
-        return json.toString();
+    private void writeProfile(JsonGenerator json, User user) throws IOException {
+        json.writeObjectFieldStart("profile");
+        json.writeNumberField("id", user.getId());
+        json.writeStringField("email", user.getEmail());
+        json.writeStringField("name", user.getName());
+        json.writeStringField("language", user.getLanguage());
+        json.writeStringField("createdAt", String.valueOf(user.getCreatedAt()));
+        json.writeEndObject();
+    }
+
+    private void writeGroups(JsonGenerator json, Long userId) throws IOException {
+        json.writeArrayFieldStart("groups");
+        for (GroupSummaryDTO group : groupSummaryRepository.findByUserId(userId)) {
+            json.writeStartObject();
+            json.writeNumberField("id", group.getId());
+            json.writeStringField("name", group.getName());
+            json.writeStringField("description", group.getDescription());
+            json.writeStringField("currency", group.getCurrency());
+            json.writeNumberField("totalSpent", group.getTotalSpent().getValue());
+            json.writeNumberField("expenseCount", group.getExpenseCount());
+            json.writeNumberField("settlementCount", group.getSettlementCount());
+            json.writeStringField("lastActivityAt", String.valueOf(group.getLastActivityAt()));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void writeExpenses(JsonGenerator json, Long userId, ProgressCounter counter) throws IOException {
+        json.writeArrayFieldStart("expenses");
+        PageRequest page = PageRequest.of(0, exportPageSize);
+        long afterId = 0;
+        Slice<ExpenseExportDTO> expenses;
+        do {
+            expenses = expenseRepository.findExpensesInvolvingUser(userId, afterId, page);
+            if (!expenses.hasContent()) {
+                break;
+            }
+
+            // One query for the splits of the whole page
+            List<Long> ids = expenses.getContent().stream().map(ExpenseExportDTO::getId).toList();
+            Map<Long, List<ExpenseSplitExportDTO>> splits = new HashMap<>();
+            for (ExpenseSplitExportDTO split : expenseSplitRepository.findExportRowsByExpenseIds(ids)) {
+                splits.computeIfAbsent(split.getExpenseId(), id -> new ArrayList<>()).add(split);
+            }
+
+            for (ExpenseExportDTO expense : expenses) {
+                writeExpense(json, expense, splits.getOrDefault(expense.getId(), List.of()));
+                counter.advance();
+            }
+            afterId = ids.get(ids.size() - 1);
+            json.flush();
+        } while (expenses.hasNext());
+        json.writeEndArray();
+    }
+
+    private void writeExpense(JsonGenerator json, ExpenseExportDTO expense,
+                              List<ExpenseSplitExportDTO> splits) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", expense.getId());
+        json.writeNumberField("groupId", expense.getGroupId());
+        json.writeStringField("groupName", expense.getGroupName());
+        json.writeStringField("description", expense.getDescription());
+        json.writeNumberField("amount", expense.getAmount().getValue());
+        json.writeStringField("date", expense.getExpenseDate().toString());
+        json.writeStringField("splitType", expense.getSplitType().name());
+        json.writeNumberField("paidById", expense.getPaidById());
+        json.writeStringField("paidByName", expense.getPaidByName());
+        json.writeStringField("createdAt", String.valueOf(expense.getCreatedAt()));
+        json.writeArrayFieldStart("splits");
+        for (ExpenseSplitExportDTO split : splits) {
+            json.writeStartObject();
+            json.writeNumberField("userId", split.getUserId());
+            json.writeStringField("userName", split.getUserName());
+            json.writeNumberField("amount", split.getAmount().getValue());
+            if (split.getPercentage() != null) {
+                json.writeNumberField("percentage", split.getPercentage());
+            }
+            if (split.getShares() != null) {
+                json.writeNumberField("shares", split.getShares());
+            }
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private void writeSettlements(JsonGenerator json, Long userId, ProgressCounter counter) throws IOException {
+        json.writeArrayFieldStart("settlements");
+        PageRequest page = PageRequest.of(0, exportPageSize);
+        long afterId = 0;
+        Slice<SettlementExportDTO> settlements;
+        do {
+            settlements = settlementRepository.findByUserId(userId, afterId, page);
+            for (SettlementExportDTO settlement : settlements) {
+                json.writeStartObject();
+                json.writeNumberField("id", settlement.getId());
+                json.writeNumberField("groupId", settlement.getGroupId());
+                json.writeStringField("groupName", settlement.getGroupName());
+                json.writeNumberField("fromUserId", settlement.getFromUserId());
+                json.writeStringField("fromUserName", settlement.getFromUserName());
+                json.writeNumberField("toUserId", settlement.getToUserId());
+                json.writeStringField("toUserName", settlement.getToUserName());
+                json.writeNumberField("amount", settlement.getAmount().getValue());
+                json.writeStringField("settledAt", String.valueOf(settlement.getSettledAt()));
+                json.writeEndObject();
+                afterId = settlement.getId();
+                counter.advance();
+            }
+            json.flush();
+        } while (settlements.hasNext());
+        json.writeEndArray();
+    }
+
+    /**
+     * Turns items written into a percentage of an expected total, reporting only changes.
+     * Stays below 100 so that only the caller declares an export finished, and copes with
+     * rows added while the export runs.
+     */
+    private static final class ProgressCounter {
+
+        private final long total;
+        private final IntConsumer listener;
+        private long done;
+        private int reported;
+
+        ProgressCounter(long total, IntConsumer listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        void advance() {
+            done++;
+            if (total <= 0) {
+                return;
+            }
+            int percent = (int) Math.min(99, done * 100 / total);
+            if (percent > reported) {
+                reported = percent;
+                listener.accept(percent);
+            }
+        }
     }
 
     private String escapeCsv(String value) {
@@ -85,13 +358,4 @@ public class ExportService {
         }
         return value;
     }
-
-    private String escapeJson(String value) {
-        if (value == null) return "";
-        return value.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
-    }
 }
@@ -0,0 +1,122 @@
+package com.splitfriend.service;
+
+import com.splitfriend.dto.BalanceDTO;
+import com.splitfriend.dto.ExpenseSummaryDTO;
+import com.splitfriend.dto.UserDTO;
+import com.splitfriend.model.Group;
+import com.splitfriend.model.Money;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Assembles everything the group page shows. The reads are independent of each other, so they
+ * run concurrently on the page read executor, each in its own read-only transaction, and the
+ * page costs about as much as its slowest read.
+ *
+ * Deliberately not transactional itself: the calling thread only waits, and holding a
+ * connection while it does would take one away from the reads.
+ */
+@Service
+public class GroupPageReadModel {
+
+    private final GroupService groupService;
+    private final BalanceService balanceService;
+    private final ExpenseService expenseService;
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public GroupPageReadModel(GroupService groupService,
+                              BalanceService balanceService,
+                              ExpenseService expenseService,
+                              @Qualifier("pageReadExecutor") Executor executor,
+                              PlatformTransactionManager transactionManager) {
+        this.groupService = groupService;
+        this.balanceService = balanceService;
+        this.expenseService = expenseService;
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Loads the page of a group. Callers check membership first.
+     * @return the page, or empty if the group does not exist
+     */
+    public Optional<GroupPage> load(Long groupId) {
+        CompletableFuture<Optional<GroupHeader>> header = read(() ->
+                groupService.findById(groupId).map(GroupHeader::of));
+        CompletableFuture<List<UserDTO>> members = read(() -> groupService.getMemberSummaries(groupId));
+        // Both come from the same balance snapshot, so they share a task and load it once
+        CompletableFuture<Balances> balances = read(() -> new Balances(
+                balanceService.getDetailedBalances(groupId), balanceService.calculateDebts(groupId)));
+        CompletableFuture<Money> totalExpenses = read(() -> expenseService.getTotalExpensesByGroup(groupId));
+        CompletableFuture<Slice<ExpenseSummaryDTO>> expenses = read(() -> expenseService.getExpensePage(groupId));
+
+        try {
+            CompletableFuture.allOf(header, members, balances, totalExpenses, expenses).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        return header.join().map(group -> new GroupPage(group, members.join(),
+                balances.join().balances(), balances.join().debts(), totalExpenses.join(), expenses.join()));
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+    }
+
+    private record Balances(List<BalanceDTO> balances, List<BalanceDTO.DebtDTO> debts) {
+    }
+
+    /**
+     * The group fields the page renders, copied out of the entity inside its transaction.
+     * A class rather than a record so templates can use bean-style property access.
+     */
+    @Value
+    public static class GroupHeader {
+        Long id;
+        String name;
+        String description;
+        String currency;
+        Long createdById;
+
+        static GroupHeader of(Group group) {
+            return new GroupHeader(group.getId(), group.getName(), group.getDescription(),
+                    group.getCurrency(), group.getCreatedBy().getId());
+        }
+    }
+
+    /**
+     * Immutable view of the group page.
+     */
+    public record GroupPage(GroupHeader group,
+                            List<UserDTO> members,
+                            List<BalanceDTO> balances,
+                            List<BalanceDTO.DebtDTO> debts,
+                            Money totalExpenses,
+                            Slice<ExpenseSummaryDTO> expenses) {
+
+        public GroupPage {
+            members = List.copyOf(members);
+            balances = List.copyOf(balances);
+            debts = List.copyOf(debts);
+        }
+    }
+}
@@ -1,11 +1,20 @@
 package com.splitfriend.service;
 
+import com.splitfriend.dto.UserDTO;
+import com.splitfriend.event.GroupDeletedEvent;
+import com.splitfriend.event.GroupMembershipChangedEvent;
 import com.splitfriend.model.Group;
 import com.splitfriend.model.GroupMember;
 import com.splitfriend.model.User;
+import com.splitfriend.repository.ExpenseRepository;
+import com.splitfriend.repository.ExpenseSplitRepository;
 import com.splitfriend.repository.GroupMemberRepository;
 import com.splitfriend.repository.GroupRepository;
+import com.splitfriend.repository.SettlementRepository;
 import com.splitfriend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,16 +25,39 @@ import java.util.Optional;
 @Transactional
 public class GroupService {
 
+    private static final Logger log = LoggerFactory.getLogger(GroupService.class);
+
     private final GroupRepository groupRepository;
     private final GroupMemberRepository groupMemberRepository;
     private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseSplitRepository expenseSplitRepository;
+    private final SettlementRepository settlementRepository;
+    private final BalanceLedgerService balanceLedgerService;
+    private final GroupSummaryService groupSummaryService;
+    private final MembershipCache membershipCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public GroupService(GroupRepository groupRepository,
                         GroupMemberRepository groupMemberRepository,
-                        UserRepository userRepository) {
+                        UserRepository userRepository,
+                        ExpenseRepository expenseRepository,
+                        ExpenseSplitRepository expenseSplitRepository,
+                        SettlementRepository settlementRepository,
+                        BalanceLedgerService balanceLedgerService,
+                        GroupSummaryService groupSummaryService,
+                        MembershipCache membershipCache,
+                        ApplicationEventPublisher eventPublisher) {
         this.groupRepository = groupRepository;
         this.groupMemberRepository = groupMemberRepository;
         this.userRepository = userRepository;
+        this.expenseRepository = expenseRepository;
+        this.expenseSplitRepository = expenseSplitRepository;
+        this.settlementRepository = settlementRepository;
+        this.balanceLedgerService = balanceLedgerService;
+        this.groupSummaryService = groupSummaryService;
+        this.membershipCache = membershipCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public Group createGroup(String name, String description, String currency, User creator) {
@@ -37,6 +69,7 @@ public class GroupService {
                 .build();
 
         group = groupRepository.save(group);
+        groupSummaryService.createGroup(group.getId());
 
         // Add creator as a member
         addMember(group, creator);
@@ -64,8 +97,24 @@ public class GroupService {
         return groupRepository.save(group);
     }
 
+    /**
+     * Deletes a group with set-based statements, children before parents, instead of
+     * cascading through the entity graph, which would load every expense and split of
+     * the group first. Bill files are removed once the transaction commits.
+     */
     public void deleteGroup(Long groupId) {
-        groupRepository.deleteById(groupId);
+        int splits = expenseSplitRepository.deleteByGroupId(groupId);
+        int expenses = expenseRepository.deleteByGroupId(groupId);
+        int settlements = settlementRepository.deleteByGroupId(groupId);
+        balanceLedgerService.clearGroup(groupId);
+        groupSummaryService.clearGroup(groupId);
+        groupMemberRepository.deleteByGroupId(groupId);
+        groupRepository.deleteRowById(groupId);
+        log.info("Deleted group {} with {} expenses, {} splits and {} settlements",
+                groupId, expenses, splits, settlements);
+
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, null));
+        eventPublisher.publishEvent(new GroupDeletedEvent(groupId));
     }
 
     public GroupMember addMember(Group group, User user) {
@@ -78,7 +127,10 @@ public class GroupService {
                 .user(user)
                 .build();
 
-        return groupMemberRepository.save(member);
+        member = groupMemberRepository.save(member);
+        balanceLedgerService.openBalance(group.getId(), user.getId());
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(group.getId(), user.getId()));
+        return member;
     }
 
     public void addMemberByEmail(Long groupId, String email) {
@@ -93,10 +145,12 @@ public class GroupService {
 
     public void removeMember(Long groupId, Long userId) {
         groupMemberRepository.deleteByGroupIdAndUserId(groupId, userId);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, userId));
     }
 
+    @Transactional(readOnly = true)
     public boolean isUserMember(Long groupId, Long userId) {
-        return groupRepository.isUserMemberOfGroup(groupId, userId);
+        return getCachedMembers(groupId).memberIds().contains(userId);
     }
 
     public List<GroupMember> getGroupMembers(Long groupId) {
@@ -107,6 +161,20 @@ public class GroupService {
         return userRepository.findByGroupId(groupId);
     }
 
+    /**
+     * Id, name and email of each member, ordered by name. Served from the membership cache;
+     * use {@link #getGroupMemberUsers} when the entities themselves are needed.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> getMemberSummaries(Long groupId) {
+        return getCachedMembers(groupId).members();
+    }
+
+    private MembershipCache.GroupMembers getCachedMembers(Long groupId) {
+        return membershipCache.get(groupId,
+                id -> new MembershipCache.GroupMembers(groupMemberRepository.findMemberSummaries(id)));
+    }
+
     public long countGroups() {
         return groupRepository.countGroups();
     }
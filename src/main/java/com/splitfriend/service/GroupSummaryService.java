@@ -0,0 +1,117 @@
+package com.splitfriend.service;
+
+import com.splitfriend.dto.GroupSummaryDTO;
+import com.splitfriend.model.Expense;
+import com.splitfriend.model.Money;
+import com.splitfriend.model.Settlement;
+import com.splitfriend.repository.GroupSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Maintains the per-group running totals: amount spent, number of expenses and settlements,
+ * and time of the last change. Every expense or settlement write applies its delta here
+ * inside the caller's transaction, with a single UPDATE that also serializes concurrent
+ * writers to the same group.
+ */
+@Service
+@Transactional
+public class GroupSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(GroupSummaryService.class);
+
+    private final GroupSummaryRepository groupSummaryRepository;
+
+    public GroupSummaryService(GroupSummaryRepository groupSummaryRepository) {
+        this.groupSummaryRepository = groupSummaryRepository;
+    }
+
+    public void createGroup(Long groupId) {
+        groupSummaryRepository.createEmpty(groupId, LocalDateTime.now());
+    }
+
+    public void clearGroup(Long groupId) {
+        groupSummaryRepository.deleteByGroupId(groupId);
+    }
+
+    public void recordExpense(Expense expense) {
+        addExpenses(expense.getGroup().getId(), expense.getAmount().getMinorUnits(), 1);
+    }
+
+    /**
+     * Records many expenses of a group at once, as written by an import.
+     */
+    public void recordExpenses(Long groupId, long totalMinorUnits, long count) {
+        addExpenses(groupId, totalMinorUnits, count);
+    }
+
+    public void reverseExpense(Expense expense) {
+        addExpenses(expense.getGroup().getId(), -expense.getAmount().getMinorUnits(), -1);
+    }
+
+    public void recordSettlement(Settlement settlement) {
+        addSettlements(settlement.getGroup().getId(), 1);
+    }
+
+    public void reverseSettlement(Settlement settlement) {
+        addSettlements(settlement.getGroup().getId(), -1);
+    }
+
+    @Transactional(readOnly = true)
+    public Money getTotalSpent(Long groupId) {
+        return groupSummaryRepository.findTotalSpent(groupId).orElse(Money.ZERO);
+    }
+
+    /**
+     * Returns the user's groups with their totals, newest group first, in a single query.
+     */
+    @Transactional(readOnly = true)
+    public List<GroupSummaryDTO> findByUserId(Long userId) {
+        return groupSummaryRepository.findByUserId(userId);
+    }
+
+    /**
+     * Recomputes the counters of every group from its expenses and settlements and creates
+     * any missing row. Counters only drift if rows are changed outside the services, so
+     * a correction is logged as a warning.
+     * @return the number of groups corrected or created
+     */
+    @Scheduled(cron = "${app.group-summaries.reconcile-cron:0 30 3 * * ?}")
+    public int reconcile() {
+        int created = groupSummaryRepository.insertMissing();
+        int corrected = groupSummaryRepository.reconcileCounters();
+        if (created > 0 || corrected > 0) {
+            log.warn("Group summary reconcile created {} and corrected {} rows", created, corrected);
+        } else {
+            log.info("Group summaries are consistent");
+        }
+        return created + corrected;
+    }
+
+    private void addExpenses(Long groupId, long amount, long count) {
+        if (groupSummaryRepository.addExpenses(groupId, amount, count, LocalDateTime.now()) == 0) {
+            createFromHistory();
+        }
+    }
+
+    private void addSettlements(Long groupId, long count) {
+        if (groupSummaryRepository.addSettlements(groupId, count, LocalDateTime.now()) == 0) {
+            createFromHistory();
+        }
+    }
+
+    /**
+     * A group without a row gets one computed from its rows, which already include
+     * the change being recorded once the persistence context is flushed.
+     */
+    private void createFromHistory() {
+        groupSummaryRepository.flush();
+        groupSummaryRepository.insertMissing();
+    }
+}
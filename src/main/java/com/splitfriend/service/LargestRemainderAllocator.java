@@ -0,0 +1,99 @@
+package com.splitfriend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Largest remainder (Hamilton) allocation: everyone gets the floor of their exact share,
+ * and the steps left over go one each to the participants with the largest remainders.
+ * Equal remainders are resolved by position, so the same input always gives the same split.
+ * Runs in O(n): the cut-off remainder is found by selection rather than sorting.
+ */
+@Component
+public class LargestRemainderAllocator implements SplitAllocator {
+
+    @Override
+    public long[] allocate(long total, long[] weights) {
+        int n = weights.length;
+        long[] amounts = new long[n];
+
+        long weightSum = 0;
+        for (long weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("Split weights must not be negative");
+            }
+            weightSum = Math.addExact(weightSum, weight);
+        }
+        if (weightSum == 0) {
+            return amounts;
+        }
+
+        long[] remainders = new long[n];
+        long left = total;
+        for (int i = 0; i < n; i++) {
+            long exact = Math.multiplyExact(total, weights[i]);
+            amounts[i] = exact / weightSum;
+            remainders[i] = exact % weightSum;
+            left -= amounts[i];
+        }
+        if (left == 0) {
+            return amounts;
+        }
+
+        // left is always smaller than the number of non-zero remainders, so the cut-off is positive
+        long cutoff = kthLargest(remainders.clone(), (int) left);
+        for (int i = 0; i < n; i++) {
+            if (remainders[i] > cutoff) {
+                amounts[i]++;
+                left--;
+            }
+        }
+        for (int i = 0; i < n && left > 0; i++) {
+            if (remainders[i] == cutoff) {
+                amounts[i]++;
+                left--;
+            }
+        }
+        return amounts;
+    }
+
+    /**
+     * Quickselect with a three-way partition, so inputs full of equal values (an EQUAL split)
+     * finish in a single pass. The pivot choice only affects speed, never the result.
+     */
+    private static long kthLargest(long[] values, int k) {
+        int lo = 0;
+        int hi = values.length - 1;
+        int target = k - 1;
+        while (lo < hi) {
+            long pivot = values[lo + ThreadLocalRandom.current().nextInt(hi - lo + 1)];
+            int gt = lo;
+            int i = lo;
+            int lt = hi;
+            while (i <= lt) {
+                if (values[i] > pivot) {
+                    swap(values, gt++, i++);
+                } else if (values[i] < pivot) {
+                    swap(values, i, lt--);
+                } else {
+                    i++;
+                }
+            }
+            if (target < gt) {
+                hi = gt - 1;
+            } else if (target > lt) {
+                lo = lt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return values[lo];
+    }
+
+    private static void swap(long[] values, int i, int j) {
+        long tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
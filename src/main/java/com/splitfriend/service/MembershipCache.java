@@ -0,0 +1,86 @@
+package com.splitfriend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.splitfriend.dto.CacheStatsDTO;
+import com.splitfriend.dto.UserDTO;
+import com.splitfriend.event.GroupMembershipChangedEvent;
+import com.splitfriend.event.UserProfileChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of group member lists, keyed by group id, so membership
+ * checks and member pickers do not hit the database on every request.
+ * Entries are evicted once the transaction that changed the membership commits.
+ */
+@Component
+public class MembershipCache {
+
+    private final Cache<Long, GroupMembers> cache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MembershipCache(@Value("${app.cache.memberships.max-size:5000}") long maxSize,
+                           @Value("${app.cache.memberships.ttl:30m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public GroupMembers get(Long groupId, Function<Long, GroupMembers> loader) {
+        return cache.get(groupId, loader);
+    }
+
+    public void evict(Long groupId) {
+        cache.invalidate(groupId);
+        invalidations.incrementAndGet();
+    }
+
+    public void evictAll() {
+        invalidations.addAndGet(cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        evict(event.groupId());
+    }
+
+    /**
+     * Covers renames as well as deleted users, whose memberships go with them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        cache.asMap().forEach((groupId, members) -> {
+            if (members.memberIds().contains(event.userId())) {
+                evict(groupId);
+            }
+        });
+    }
+
+    public CacheStatsDTO getStats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO("memberships", cache.estimatedSize(), stats.hitCount(),
+                stats.missCount(), stats.evictionCount(), invalidations.get());
+    }
+
+    /**
+     * Immutable member list of a group, with the ids as a set for membership checks.
+     */
+    public record GroupMembers(Set<Long> memberIds, List<UserDTO> members) {
+
+        public GroupMembers(List<UserDTO> members) {
+            this(Set.copyOf(members.stream().map(UserDTO::getId).toList()), List.copyOf(members));
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.splitfriend.service;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Splits a zero-sum set of balances into the largest possible number of zero-sum groups.
+ * A group of k members settles with k - 1 transfers, so maximizing the number of groups
+ * minimizes the number of transfers for the whole set.
+ *
+ * Small sets are solved exactly with a dynamic program over subsets. Larger sets use a
+ * parallel branch-and-bound search that stops when its time budget runs out.
+ */
+final class OptimalDebtSolver {
+
+    /** The branch-and-bound search keeps the remaining members in a {@code long} bit set. */
+    static final int MAX_SEARCH_PARTICIPANTS = 62;
+
+    private final int dpMaxParticipants;
+    private final long timeBudgetNanos;
+
+    OptimalDebtSolver(int dpMaxParticipants, long timeBudgetNanos) {
+        this.dpMaxParticipants = dpMaxParticipants;
+        this.timeBudgetNanos = timeBudgetNanos;
+    }
+
+    /**
+     * @param amounts non-zero amounts summing to zero
+     * @param groupsToBeat a partition must have more groups than this to be returned
+     * @return the groups as arrays of indices into {@code amounts}, or null when no partition
+     *         better than {@code groupsToBeat} was found
+     */
+    List<int[]> partition(long[] amounts, int groupsToBeat) {
+        List<int[]> groups = new ArrayList<>();
+
+        // Exact opposites can always be paired off without losing optimality
+        int[] rest = pairOpposites(amounts, groups);
+        long[] restAmounts = new long[rest.length];
+        for (int i = 0; i < rest.length; i++) {
+            restAmounts[i] = amounts[rest[i]];
+        }
+
+        List<int[]> restGroups;
+        if (rest.length == 0) {
+            restGroups = List.of();
+        } else if (rest.length <= dpMaxParticipants) {
+            restGroups = partitionExact(restAmounts);
+        } else if (rest.length <= MAX_SEARCH_PARTICIPANTS) {
+            restGroups = partitionSearch(restAmounts, groupsToBeat - groups.size());
+        } else {
+            restGroups = null;
+        }
+        if (restGroups == null) {
+            return null;
+        }
+
+        for (int[] group : restGroups) {
+            int[] mapped = new int[group.length];
+            for (int i = 0; i < group.length; i++) {
+                mapped[i] = rest[group[i]];
+            }
+            groups.add(mapped);
+        }
+        return groups.size() > groupsToBeat ? groups : null;
+    }
+
+    private int[] pairOpposites(long[] amounts, List<int[]> groups) {
+        Map<Long, Deque<Integer>> unmatched = new HashMap<>();
+        boolean[] paired = new boolean[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            Deque<Integer> opposites = unmatched.get(-amounts[i]);
+            if (opposites != null && !opposites.isEmpty()) {
+                int j = opposites.poll();
+                paired[i] = true;
+                paired[j] = true;
+                groups.add(new int[]{j, i});
+            } else {
+                unmatched.computeIfAbsent(amounts[i], k -> new ArrayDeque<>()).add(i);
+            }
+        }
+
+        int[] rest = new int[amounts.length - 2 * groups.size()];
+        int next = 0;
+        for (int i = 0; i < amounts.length; i++) {
+            if (!paired[i]) {
+                rest[next++] = i;
+            }
+        }
+        return rest;
+    }
+
+    /**
+     * best[mask] is the largest number of zero-sum prefixes over all orderings of mask,
+     * which equals the number of zero-sum groups mask can be split into.
+     */
+    private List<int[]> partitionExact(long[] amounts) {
+        int n = amounts.length;
+        int size = 1 << n;
+        long[] sums = new long[size];
+        byte[] best = new byte[size];
+        byte[] last = new byte[size];
+
+        for (int mask = 1; mask < size; mask++) {
+            sums[mask] = sums[mask & (mask - 1)] + amounts[Integer.numberOfTrailingZeros(mask)];
+            int bestValue = -1;
+            int bestIndex = 0;
+            for (int bits = mask; bits != 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                int value = best[mask ^ (1 << i)];
+                if (value > bestValue) {
+                    bestValue = value;
+                    bestIndex = i;
+                }
+            }
+            best[mask] = (byte) (bestValue + (sums[mask] == 0 ? 1 : 0));
+            last[mask] = (byte) bestIndex;
+        }
+
+        // Replay the ordering and cut it wherever the running sum returns to zero
+        int[] order = new int[n];
+        int mask = size - 1;
+        for (int pos = n - 1; pos >= 0; pos--) {
+            order[pos] = last[mask];
+            mask ^= 1 << order[pos];
+        }
+
+        List<int[]> groups = new ArrayList<>();
+        long sum = 0;
+        int start = 0;
+        for (int pos = 0; pos < n; pos++) {
+            sum += amounts[order[pos]];
+            if (sum == 0) {
+                groups.add(Arrays.copyOfRange(order, start, pos + 1));
+                start = pos + 1;
+            }
+        }
+        return groups;
+    }
+
+    private List<int[]> partitionSearch(long[] amounts, int groupsToBeat) {
+        Search search = new Search(amounts, groupsToBeat, System.nanoTime() + timeBudgetNanos);
+        search.searchInParallel((1L << amounts.length) - 1);
+
+        long[] found = search.bestPartition;
+        if (found == null) {
+            return null;
+        }
+        List<int[]> groups = new ArrayList<>();
+        for (long group : found) {
+            int[] members = new int[Long.bitCount(group)];
+            int next = 0;
+            for (long bits = group; bits != 0; bits &= bits - 1) {
+                members[next++] = Long.numberOfTrailingZeros(bits);
+            }
+            groups.add(members);
+        }
+        return groups;
+    }
+
+    private static final class Search {
+
+        private final long[] amounts;
+        private final long deadline;
+        private final AtomicInteger bestGroups;
+        private final AtomicBoolean timedOut = new AtomicBoolean();
+        private volatile long[] bestPartition;
+
+        Search(long[] amounts, int groupsToBeat, long deadline) {
+            this.amounts = amounts;
+            this.deadline = deadline;
+            this.bestGroups = new AtomicInteger(groupsToBeat);
+        }
+
+        /**
+         * The first member's group always contains at least one partner, so the branches
+         * "first partner is candidate k" are disjoint and can be searched concurrently.
+         */
+        void searchInParallel(long all) {
+            Candidates candidates = new Candidates(all);
+            IntStream.range(0, candidates.indices.length).parallel().forEach(pos -> {
+                long[] stack = new long[amounts.length / 2 + 1];
+                int partner = candidates.indices[pos];
+                extend(candidates, pos + 1, amounts[candidates.first] + amounts[partner],
+                        (1L << candidates.first) | (1L << partner), group -> {
+                            stack[0] = group;
+                            search(all & ~group, stack, 1);
+                        });
+            });
+        }
+
+        private void search(long remaining, long[] stack, int depth) {
+            if (isTimedOut()) {
+                return;
+            }
+            if (remaining == 0) {
+                record(stack, depth);
+                return;
+            }
+            // Every further group needs at least two members
+            if (depth + Long.bitCount(remaining) / 2 <= bestGroups.get()) {
+                return;
+            }
+            Candidates candidates = new Candidates(remaining);
+            extend(candidates, 0, amounts[candidates.first], 1L << candidates.first, group -> {
+                stack[depth] = group;
+                search(remaining & ~group, stack, depth + 1);
+            });
+        }
+
+        private synchronized void record(long[] stack, int depth) {
+            if (depth > bestGroups.get()) {
+                bestGroups.set(depth);
+                bestPartition = Arrays.copyOf(stack, depth);
+            }
+        }
+
+        private boolean isTimedOut() {
+            if (timedOut.get()) {
+                return true;
+            }
+            if (System.nanoTime() > deadline) {
+                timedOut.set(true);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Visits the minimal zero-sum groups made of the current group plus candidates from
+         * {@code pos} on. Non-minimal groups are skipped: splitting them always gives one more group.
+         */
+        private void extend(Candidates candidates, int pos, long sum, long group, LongConsumer action) {
+            if (sum == 0) {
+                action.accept(group);
+                return;
+            }
+            if (pos == candidates.indices.length
+                    || sum + candidates.positiveSuffix[pos] < 0
+                    || sum + candidates.negativeSuffix[pos] > 0
+                    || isTimedOut()) {
+                return;
+            }
+            int candidate = candidates.indices[pos];
+            extend(candidates, pos + 1, sum + amounts[candidate], group | (1L << candidate), action);
+            extend(candidates, pos + 1, sum, group, action);
+        }
+
+        /**
+         * The lowest remaining member and the others, with suffix sums bounding how far the
+         * running sum of a group can still move up or down.
+         */
+        private final class Candidates {
+
+            final int first;
+            final int[] indices;
+            final long[] positiveSuffix;
+            final long[] negativeSuffix;
+
+            Candidates(long remaining) {
+                first = Long.numberOfTrailingZeros(remaining);
+                long others = remaining & ~(1L << first);
+                int count = Long.bitCount(others);
+                indices = new int[count];
+                positiveSuffix = new long[count + 1];
+                negativeSuffix = new long[count + 1];
+
+                int next = 0;
+                for (long bits = others; bits != 0; bits &= bits - 1) {
+                    indices[next++] = Long.numberOfTrailingZeros(bits);
+                }
+                for (int i = count - 1; i >= 0; i--) {
+                    long amount = amounts[indices[i]];
+                    positiveSuffix[i] = positiveSuffix[i + 1] + Math.max(amount, 0);
+                    negativeSuffix[i] = negativeSuffix[i + 1] + Math.min(amount, 0);
+                }
+            }
+        }
+    }
+}
@@ -158,13 +158,23 @@ public class PushNotificationService {
         String body = String.format("%s added '%s' ($%.2f) in %s",
             payer.getName(),
             expense.getDescription(),
-            expense.getAmount(),
+            expense.getAmount().getValue(),
             expense.getGroup().getName());
         String url = "/groups/" + expense.getGroup().getId();
 
         sendNotificationToUsers(recipientIds, title, body, url);
     }
 
+    @Async
+    public void notifyExportReady(Long userId, String fileName) {
+        if (!isPushEnabled()) {
+            return;
+        }
+
+        sendNotificationToUsers(List.of(userId), "Export Ready",
+            String.format("%s is ready to download", fileName), "/exports");
+    }
+
     private void sendNotification(PushSubscription subscription, String title, String body, String url) {
         try {
             Subscription webPushSubscription = new Subscription(
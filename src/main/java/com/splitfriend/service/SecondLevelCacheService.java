@@ -0,0 +1,57 @@
+package com.splitfriend.service;
+
+import com.splitfriend.dto.CacheRegionStatsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.DomainDataRegion;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistics and maintenance for Hibernate's second-level cache, whose regions are
+ * configured in ehcache.xml.
+ */
+@Component
+public class SecondLevelCacheService {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public SecondLevelCacheService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public List<CacheRegionStatsDTO> getRegionStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheImplementor cache = sessionFactory.getCache();
+        List<CacheRegionStatsDTO> regions = new ArrayList<>();
+
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            // Query result and timestamp regions are summarized below
+            if (!(cache.getRegion(regionName) instanceof DomainDataRegion)) {
+                continue;
+            }
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            regions.add(new CacheRegionStatsDTO(regionName, region.getHitCount(),
+                    region.getMissCount(), region.getPutCount()));
+        }
+        regions.add(new CacheRegionStatsDTO("query results", statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        return regions;
+    }
+
+    /**
+     * Drops every cached entity, collection and query result, for when the database
+     * has been changed behind Hibernate's back.
+     */
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,135 @@
+package com.splitfriend.service;
+
+/**
+ * Greedy settlement planning: the largest remaining creditor is repeatedly paid by the
+ * largest remaining debtor. Creditors and debtors are kept in two binary heaps of indices
+ * over primitive arrays, so a plan costs O(n log n) and allocates nothing per transfer.
+ * Ties are broken by the lower user id, which keeps plans stable between calls.
+ */
+final class SettlementPlanner {
+
+    private final long[] ids;
+    private final long[] open;
+
+    private SettlementPlanner(long[] ids, long[] open) {
+        this.ids = ids;
+        this.open = open;
+    }
+
+    /**
+     * @param ids user ids
+     * @param amounts balances in minor units, positive when the user is owed money
+     * @param minAmount balances smaller than this in magnitude are considered settled
+     */
+    static Plan plan(long[] ids, long[] amounts, long minAmount) {
+        int n = ids.length;
+        long[] open = new long[n];
+        int[] creditors = new int[n];
+        int[] debtors = new int[n];
+        int creditorCount = 0;
+        int debtorCount = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (amounts[i] >= minAmount) {
+                open[i] = amounts[i];
+                creditors[creditorCount++] = i;
+            } else if (amounts[i] <= -minAmount) {
+                open[i] = -amounts[i];
+                debtors[debtorCount++] = i;
+            }
+        }
+
+        SettlementPlanner planner = new SettlementPlanner(ids, open);
+        planner.heapify(creditors, creditorCount);
+        planner.heapify(debtors, debtorCount);
+
+        Plan plan = new Plan(creditorCount + debtorCount);
+        while (creditorCount > 0 && debtorCount > 0) {
+            int creditor = creditors[0];
+            int debtor = debtors[0];
+            long payment = Math.min(open[creditor], open[debtor]);
+            plan.add(ids[debtor], ids[creditor], payment);
+
+            open[creditor] -= payment;
+            open[debtor] -= payment;
+            if (open[creditor] < minAmount) {
+                creditors[0] = creditors[--creditorCount];
+            }
+            planner.siftDown(creditors, creditorCount, 0);
+            if (open[debtor] < minAmount) {
+                debtors[0] = debtors[--debtorCount];
+            }
+            planner.siftDown(debtors, debtorCount, 0);
+        }
+        return plan;
+    }
+
+    private void heapify(int[] heap, int size) {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(heap, size, i);
+        }
+    }
+
+    private void siftDown(int[] heap, int size, int pos) {
+        int item = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], item)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+
+    private boolean before(int a, int b) {
+        return open[a] > open[b] || (open[a] == open[b] && ids[a] < ids[b]);
+    }
+
+    /**
+     * Transfers in the order they were planned, as parallel arrays.
+     */
+    static final class Plan {
+
+        private final long[] fromIds;
+        private final long[] toIds;
+        private final long[] amounts;
+        private int size;
+
+        private Plan(int capacity) {
+            fromIds = new long[capacity];
+            toIds = new long[capacity];
+            amounts = new long[capacity];
+        }
+
+        private void add(long fromId, long toId, long amount) {
+            fromIds[size] = fromId;
+            toIds[size] = toId;
+            amounts[size] = amount;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long fromId(int i) {
+            return fromIds[i];
+        }
+
+        long toId(int i) {
+            return toIds[i];
+        }
+
+        long amount(int i) {
+            return amounts[i];
+        }
+    }
+}
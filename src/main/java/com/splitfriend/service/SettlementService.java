@@ -1,13 +1,15 @@
 package com.splitfriend.service;
 
+import com.splitfriend.event.GroupBalancesChangedEvent;
 import com.splitfriend.model.Group;
+import com.splitfriend.model.Money;
 import com.splitfriend.model.Settlement;
 import com.splitfriend.model.User;
 import com.splitfriend.repository.SettlementRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,13 +18,22 @@ import java.util.Optional;
 public class SettlementService {
 
     private final SettlementRepository settlementRepository;
-
-    public SettlementService(SettlementRepository settlementRepository) {
+    private final BalanceLedgerService balanceLedgerService;
+    private final GroupSummaryService groupSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SettlementService(SettlementRepository settlementRepository,
+                             BalanceLedgerService balanceLedgerService,
+                             GroupSummaryService groupSummaryService,
+                             ApplicationEventPublisher eventPublisher) {
         this.settlementRepository = settlementRepository;
+        this.balanceLedgerService = balanceLedgerService;
+        this.groupSummaryService = groupSummaryService;
+        this.eventPublisher = eventPublisher;
     }
 
-    public Settlement createSettlement(Group group, User fromUser, User toUser, BigDecimal amount) {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public Settlement createSettlement(Group group, User fromUser, User toUser, Money amount) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Settlement amount must be positive");
         }
 
@@ -37,7 +48,12 @@ public class SettlementService {
                 .amount(amount)
                 .build();
 
-        return settlementRepository.save(settlement);
+        settlement = settlementRepository.save(settlement);
+        balanceLedgerService.recordSettlement(settlement);
+        groupSummaryService.recordSettlement(settlement);
+        eventPublisher.publishEvent(new GroupBalancesChangedEvent(group.getId()));
+
+        return settlement;
     }
 
     public Optional<Settlement> findById(Long id) {
@@ -57,18 +73,23 @@ public class SettlementService {
     }
 
     public void deleteSettlement(Long settlementId) {
-        settlementRepository.deleteById(settlementId);
+        settlementRepository.findById(settlementId).ifPresent(settlement -> {
+            balanceLedgerService.reverseSettlement(settlement);
+            settlementRepository.delete(settlement);
+            groupSummaryService.reverseSettlement(settlement);
+            eventPublisher.publishEvent(new GroupBalancesChangedEvent(settlement.getGroup().getId()));
+        });
     }
 
-    public BigDecimal getTotalSettledBetweenUsers(Long groupId, Long fromUserId, Long toUserId) {
-        return settlementRepository.getTotalSettledBetweenUsers(groupId, fromUserId, toUserId);
+    public Money getTotalSettledBetweenUsers(Long groupId, Long fromUserId, Long toUserId) {
+        return Money.ofMinorUnits(settlementRepository.getTotalSettledBetweenUsers(groupId, fromUserId, toUserId));
     }
 
     public long countSettlements() {
         return settlementRepository.countSettlements();
     }
 
-    public BigDecimal getTotalSettledAmount() {
-        return settlementRepository.getTotalSettledAmount();
+    public Money getTotalSettledAmount() {
+        return Money.ofMinorUnits(settlementRepository.getTotalSettledAmount());
     }
 }
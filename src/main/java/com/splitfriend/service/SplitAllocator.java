@@ -0,0 +1,15 @@
+package com.splitfriend.service;
+
+/**
+ * Divides an amount between participants in proportion to their weights.
+ */
+public interface SplitAllocator {
+
+    /**
+     * @param total the amount to divide, in indivisible steps
+     * @param weights one non-negative weight per participant
+     * @return the steps given to each participant, adding up to {@code total}
+     *         unless every weight is zero
+     */
+    long[] allocate(long total, long[] weights);
+}
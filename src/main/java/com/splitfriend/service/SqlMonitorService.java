@@ -0,0 +1,124 @@
+package com.splitfriend.service;
+
+import com.splitfriend.config.SqlRequestStats;
+import com.splitfriend.dto.EndpointSqlStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregates the SQL activity of each request by endpoint and warns about requests that run
+ * too many statements or repeat the same statement, the usual sign of an N+1 query.
+ */
+@Service
+public class SqlMonitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlMonitorService.class);
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final int warnStatements;
+    private final int repeatThreshold;
+
+    public SqlMonitorService(@Value("${app.sql-monitor.enabled:true}") boolean enabled,
+                             @Value("${app.sql-monitor.warn-statements:30}") int warnStatements,
+                             @Value("${app.sql-monitor.repeat-threshold:5}") int repeatThreshold) {
+        this.enabled = enabled;
+        this.warnStatements = warnStatements;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public void record(String endpoint, SqlRequestStats stats) {
+        int statements = stats.getStatements();
+        if (statements == 0) {
+            return;
+        }
+        long jdbcMillis = TimeUnit.NANOSECONDS.toMillis(stats.getJdbcNanos());
+        int repeats = stats.getMostRepeatedCount();
+        boolean tooMany = statements > warnStatements;
+        boolean repeated = repeats >= repeatThreshold;
+
+        if (tooMany) {
+            log.warn("{} ran {} SQL statements ({} ms in JDBC)", endpoint, statements, jdbcMillis);
+        }
+        if (repeated) {
+            log.warn("Possible N+1 on {}: statement ran {} times: {}", endpoint, repeats, stats.getMostRepeated());
+        }
+
+        endpoints.computeIfAbsent(endpoint, EndpointStats::new)
+                .add(statements, jdbcMillis, tooMany || repeated, repeats, stats.getMostRepeated());
+    }
+
+    /**
+     * Returns every endpoint seen since the last reset, the most statements per request first.
+     */
+    public List<EndpointSqlStatsDTO> getEndpointStats() {
+        List<EndpointSqlStatsDTO> result = new ArrayList<>();
+        for (EndpointStats stats : endpoints.values()) {
+            result.add(stats.toDTO());
+        }
+        result.sort(Comparator.comparingDouble(EndpointSqlStatsDTO::getAverageStatements).reversed()
+                .thenComparing(EndpointSqlStatsDTO::getEndpoint));
+        return result;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getWarnStatements() {
+        return warnStatements;
+    }
+
+    public int getRepeatThreshold() {
+        return repeatThreshold;
+    }
+
+    private static final class EndpointStats {
+
+        private final String endpoint;
+        private long requests;
+        private long totalStatements;
+        private int maxStatements;
+        private long totalJdbcMillis;
+        private long flaggedRequests;
+        private int maxRepeats;
+        private String repeatedStatement;
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void add(int statements, long jdbcMillis, boolean flagged, int repeats, String statement) {
+            requests++;
+            totalStatements += statements;
+            maxStatements = Math.max(maxStatements, statements);
+            totalJdbcMillis += jdbcMillis;
+            if (flagged) {
+                flaggedRequests++;
+            }
+            if (repeats > maxRepeats) {
+                maxRepeats = repeats;
+                repeatedStatement = statement;
+            }
+        }
+
+        synchronized EndpointSqlStatsDTO toDTO() {
+            return new EndpointSqlStatsDTO(endpoint, requests, totalStatements, maxStatements,
+                    totalJdbcMillis, flaggedRequests, maxRepeats, maxRepeats > 1 ? repeatedStatement : null);
+        }
+    }
+}
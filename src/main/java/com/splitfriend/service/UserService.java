@@ -1,11 +1,17 @@
 package com.splitfriend.service;
 
+import com.splitfriend.event.GroupMembershipChangedEvent;
+import com.splitfriend.event.UserProfileChangedEvent;
 import com.splitfriend.model.User;
 import com.splitfriend.model.enums.Role;
+import com.splitfriend.repository.ExportJobRepository;
+import com.splitfriend.repository.GroupMemberRepository;
+import com.splitfriend.repository.PushSubscriptionRepository;
 import com.splitfriend.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,7 +27,12 @@ public class UserService {
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final PushSubscriptionRepository pushSubscriptionRepository;
+    private final ExportJobRepository exportJobRepository;
     private final PasswordEncoder passwordEncoder;
+    private final BalanceLedgerService balanceLedgerService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.admin.default-email:admin@splitfriend.local}")
     private String adminEmail;
@@ -29,9 +40,18 @@ public class UserService {
     @Value("${app.admin.default-password:admin123}")
     private String adminPassword;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, GroupMemberRepository groupMemberRepository,
+                       PushSubscriptionRepository pushSubscriptionRepository,
+                       ExportJobRepository exportJobRepository, PasswordEncoder passwordEncoder,
+                       BalanceLedgerService balanceLedgerService,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.groupMemberRepository = groupMemberRepository;
+        this.pushSubscriptionRepository = pushSubscriptionRepository;
+        this.exportJobRepository = exportJobRepository;
         this.passwordEncoder = passwordEncoder;
+        this.balanceLedgerService = balanceLedgerService;
+        this.eventPublisher = eventPublisher;
     }
 
     @PostConstruct
@@ -93,7 +113,9 @@ public class UserService {
     }
 
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(saved.getId()));
+        return saved;
     }
 
     public void updatePassword(User user, String newPassword) {
@@ -115,8 +137,30 @@ public class UserService {
         });
     }
 
+    /**
+     * Deletes a user and the rows that only belong to them with set-based statements.
+     * Users who created a group or appear in a group's expenses or settlements are refused,
+     * since removing them would change the other members' balances.
+     * @throws IllegalStateException if the user has group history
+     */
     public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+        if (userRepository.hasGroupHistory(userId)) {
+            throw new IllegalStateException(
+                    "User has created groups or has expenses or settlements; disable the account instead");
+        }
+
+        List<Long> groupIds = groupMemberRepository.findGroupIdsByUserId(userId);
+        pushSubscriptionRepository.deleteAllByUserId(userId);
+        // Their files are removed by the export expiry sweep
+        exportJobRepository.deleteByUserId(userId);
+        balanceLedgerService.clearUser(userId);
+        groupMemberRepository.deleteByUserId(userId);
+        userRepository.deleteRowById(userId);
+
+        for (Long groupId : groupIds) {
+            eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, userId));
+        }
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
     }
 
     public long countActiveUsers() {
@@ -0,0 +1,62 @@
+package com.splitfriend.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+
+/**
+ * Limits the average rate at which bytes are written to the wrapped stream by sleeping
+ * whenever the writer gets ahead of the allowed rate.
+ */
+public class ThrottledOutputStream extends FilterOutputStream {
+
+    private final long bytesPerSecond;
+    private final long startNanos = System.nanoTime();
+    private long written;
+
+    /**
+     * @param bytesPerSecond the maximum average rate, or 0 or less for no limit
+     */
+    public ThrottledOutputStream(OutputStream out, long bytesPerSecond) {
+        super(out);
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        throttle(1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        throttle(len);
+    }
+
+    /**
+     * Bytes written so far.
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    private void throttle(int length) throws IOException {
+        written += length;
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        // In floating point, as written * 1e9 overflows a long after about 9.2 GB
+        long expectedNanos = (long) (written / (double) bytesPerSecond * 1e9);
+        long aheadMillis = (expectedNanos - (System.nanoTime() - startNanos)) / 1_000_000L;
+        if (aheadMillis > 0) {
+            try {
+                Thread.sleep(aheadMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling output");
+            }
+        }
+    }
+}
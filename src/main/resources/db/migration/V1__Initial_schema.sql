@@ -0,0 +1,96 @@
+-- Schema as it was last generated by Hibernate. Every statement is IF NOT EXISTS so the
+-- script also runs on databases created before migrations were introduced (they are
+-- baselined at version 0) and only adds what is missing.
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    totp_secret VARCHAR(255),
+    totp_enabled BOOLEAN,
+    role VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    enabled BOOLEAN NOT NULL,
+    language VARCHAR(5),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS groups (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    currency VARCHAR(3),
+    created_by BIGINT NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_groups_created_by FOREIGN KEY (created_by) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS group_members (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    joined_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT uk_group_members_group_user UNIQUE (group_id, user_id),
+    CONSTRAINT fk_group_members_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_group_members_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS expenses (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    paid_by BIGINT NOT NULL,
+    description VARCHAR(500) NOT NULL,
+    amount BIGINT NOT NULL,
+    split_type VARCHAR(255) NOT NULL CHECK (split_type IN ('EQUAL', 'PERCENTAGE', 'EXACT', 'SHARES')),
+    expense_date DATE NOT NULL,
+    bill_path VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_expenses_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_expenses_paid_by FOREIGN KEY (paid_by) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS expense_splits (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    amount BIGINT NOT NULL,
+    percentage NUMERIC(5, 2),
+    shares INTEGER,
+    CONSTRAINT fk_expense_splits_expense FOREIGN KEY (expense_id) REFERENCES expenses (id),
+    CONSTRAINT fk_expense_splits_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS settlements (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    from_user BIGINT NOT NULL,
+    to_user BIGINT NOT NULL,
+    amount BIGINT NOT NULL,
+    settled_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_settlements_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_settlements_from_user FOREIGN KEY (from_user) REFERENCES users (id),
+    CONSTRAINT fk_settlements_to_user FOREIGN KEY (to_user) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS group_balances (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    balance BIGINT NOT NULL,
+    CONSTRAINT uk_group_balances_group_user UNIQUE (group_id, user_id),
+    CONSTRAINT fk_group_balances_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_group_balances_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS push_subscriptions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    endpoint VARCHAR(2048) NOT NULL,
+    p256dh_key VARCHAR(512) NOT NULL,
+    auth_key VARCHAR(512) NOT NULL,
+    user_agent VARCHAR(512),
+    created_at TIMESTAMP(6) NOT NULL,
+    last_used_at TIMESTAMP(6),
+    CONSTRAINT fk_push_subscriptions_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
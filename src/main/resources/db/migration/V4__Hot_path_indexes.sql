@@ -0,0 +1,22 @@
+-- Composite indexes matching the repository query shapes. QueryPlanCheck verifies at
+-- startup that the planner picks them.
+
+-- Group expense list, newest first (ExpenseRepository.findByGroupId, findSummariesByGroupId*)
+CREATE INDEX IF NOT EXISTS idx_expenses_group_date
+    ON expenses (group_id, expense_date DESC, created_at DESC);
+
+-- Expenses a user takes part in (ExpenseRepository.findExpensesInvolvingUser)
+CREATE INDEX IF NOT EXISTS idx_expense_splits_user_expense
+    ON expense_splits (user_id, expense_id);
+
+-- Group settlement history, newest first (SettlementRepository.findByGroupId)
+CREATE INDEX IF NOT EXISTS idx_settlements_group_settled
+    ON settlements (group_id, settled_at DESC);
+
+-- Totals between two users (SettlementRepository.getTotalSettledBetweenUsers)
+CREATE INDEX IF NOT EXISTS idx_settlements_from_to
+    ON settlements (from_user, to_user);
+
+-- Groups of a user (GroupRepository.findByUserId)
+CREATE INDEX IF NOT EXISTS idx_group_members_user_group
+    ON group_members (user_id, group_id);
@@ -0,0 +1,23 @@
+-- Per-group counters kept up to date by ExpenseService and SettlementService, so the
+-- group pages and the groups list never aggregate a group's history on read.
+-- GroupSummaryService.reconcile() repairs any drift.
+
+CREATE TABLE IF NOT EXISTS group_summaries (
+    group_id BIGINT NOT NULL PRIMARY KEY,
+    total_spent BIGINT NOT NULL,
+    expense_count BIGINT NOT NULL,
+    settlement_count BIGINT NOT NULL,
+    last_activity_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT fk_group_summaries_group FOREIGN KEY (group_id) REFERENCES groups (id)
+);
+
+INSERT INTO group_summaries (group_id, total_spent, expense_count, settlement_count, last_activity_at)
+SELECT g.id,
+       (SELECT COALESCE(SUM(e.amount), 0) FROM expenses e WHERE e.group_id = g.id),
+       (SELECT COUNT(*) FROM expenses e WHERE e.group_id = g.id),
+       (SELECT COUNT(*) FROM settlements s WHERE s.group_id = g.id),
+       GREATEST(g.created_at,
+                COALESCE((SELECT MAX(e.created_at) FROM expenses e WHERE e.group_id = g.id), g.created_at),
+                COALESCE((SELECT MAX(s.settled_at) FROM settlements s WHERE s.group_id = g.id), g.created_at))
+FROM groups g
+WHERE NOT EXISTS (SELECT 1 FROM group_summaries gs WHERE gs.group_id = g.id);
@@ -0,0 +1,23 @@
+-- Exports run in the background on ExportJobRunner; each job is tracked here and its file
+-- is kept under <upload path>/exports until expires_at.
+
+CREATE TABLE IF NOT EXISTS export_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    group_id BIGINT,
+    type VARCHAR(20) NOT NULL,
+    compressed BOOLEAN NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    progress INT NOT NULL,
+    file_name VARCHAR(255),
+    file_size BIGINT,
+    error VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    started_at TIMESTAMP(6),
+    completed_at TIMESTAMP(6),
+    expires_at TIMESTAMP(6),
+    CONSTRAINT fk_export_jobs_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_export_jobs_user ON export_jobs (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_export_jobs_expires ON export_jobs (expires_at);
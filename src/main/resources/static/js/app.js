@@ -524,3 +524,33 @@ document.addEventListener('DOMContentLoaded', function() {
         checkPushStatus();
     }
 });
+
+// Expense list: fetch the next page of rows in place of the "Load more" row
+document.addEventListener('click', function(e) {
+    var link = e.target.closest('[data-load-more]');
+    if (!link) {
+        return;
+    }
+    e.preventDefault();
+    if (link.classList.contains('disabled')) {
+        return;
+    }
+    link.classList.add('disabled');
+    var row = link.closest('tr');
+    fetch(link.href, { credentials: 'same-origin' })
+        .then(function(response) {
+            // A redirect means the session expired and the login page came back
+            if (!response.ok || response.redirected) {
+                throw new Error('HTTP ' + response.status);
+            }
+            return response.text();
+        })
+        .then(function(html) {
+            row.insertAdjacentHTML('afterend', html);
+            row.remove();
+        })
+        .catch(function(error) {
+            console.error('Failed to load expenses:', error);
+            link.classList.remove('disabled');
+        });
+});
@@ -0,0 +1,204 @@
+package com.splitfriend.service;
+
+import com.splitfriend.model.Expense;
+import com.splitfriend.model.ExpenseSplit;
+import com.splitfriend.model.Settlement;
+import com.splitfriend.repository.ExpenseRepository;
+import com.splitfriend.repository.SettlementRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares heap allocation and latency of a group's balances computed by hydrating its
+ * expenses, splits and settlements, by the aggregate queries the ledger rebuild uses, and by
+ * reading the ledger rows, for groups with 10k+ expenses.
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=BalanceQueryBenchmarkTest}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:balancebench;DB_CLOSE_DELAY=-1",
+        "app.db.plan-check.enabled=false",
+        "app.sql-monitor.enabled=false",
+        "app.backup.auto-backup.enabled=false"
+})
+class BalanceQueryBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceQueryBenchmarkTest.class);
+
+    private static final int[] EXPENSE_COUNTS = {10_000, 50_000};
+    private static final int MEMBERS = 12;
+    private static final int SPLITS_PER_EXPENSE = 3;
+    private static final long FIRST_ID = 1_000_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int RUNS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private SettlementRepository settlementRepository;
+
+    @Autowired
+    private BalanceLedgerService balanceLedgerService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareEntityReplayWithAggregateQueries() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        long[] userIds = seedUsers();
+        log.info(String.format("%9s %-18s %10s %10s %12s %10s", "expenses", "path", "p50 ms", "max ms",
+                "alloc MB", "entities"));
+        for (int g = 0; g < EXPENSE_COUNTS.length; g++) {
+            long groupId = FIRST_ID + g;
+            seedGroup(groupId, userIds, EXPENSE_COUNTS[g], new Random(groupId));
+            readWrite.executeWithoutResult(status -> balanceLedgerService.rebuildGroup(groupId));
+
+            Map<Long, Long> expected = readOnly.execute(status -> replayEntities(groupId));
+            Map<Long, Long> aggregated = readOnly.execute(status -> balanceLedgerService.replayGroupBalances(groupId));
+            assertThat(aggregated).isEqualTo(expected);
+
+            measure(EXPENSE_COUNTS[g], "entity replay", readOnly, () -> replayEntities(groupId));
+            measure(EXPENSE_COUNTS[g], "aggregate queries", readOnly,
+                    () -> balanceLedgerService.replayGroupBalances(groupId));
+            measure(EXPENSE_COUNTS[g], "ledger read", readOnly,
+                    () -> balanceLedgerService.getGroupBalances(groupId));
+        }
+    }
+
+    /**
+     * The balance computation the aggregate queries replaced.
+     */
+    private Map<Long, Long> replayEntities(Long groupId) {
+        Map<Long, Long> balances = new HashMap<>();
+        for (Expense expense : expenseRepository.findByGroupIdWithSplits(groupId)) {
+            balances.merge(expense.getPaidBy().getId(), expense.getAmount().getMinorUnits(), Long::sum);
+            for (ExpenseSplit split : expense.getSplits()) {
+                balances.merge(split.getUser().getId(), -split.getAmount().getMinorUnits(), Long::sum);
+            }
+        }
+        for (Settlement settlement : settlementRepository.findByGroupId(groupId)) {
+            balances.merge(settlement.getFromUser().getId(), settlement.getAmount().getMinorUnits(), Long::sum);
+            balances.merge(settlement.getToUser().getId(), -settlement.getAmount().getMinorUnits(), Long::sum);
+        }
+        return balances;
+    }
+
+    /**
+     * Runs each call in its own read-only transaction, so every run starts with an empty
+     * persistence context, and reports the allocation of the calling thread.
+     */
+    private void measure(int expenses, String path, TransactionTemplate readOnly, Supplier<?> call) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            readOnly.execute(status -> call.get());
+        }
+        long[] nanos = new long[RUNS];
+        long[] allocated = new long[RUNS];
+        long[] entities = new long[1];
+        for (int run = 0; run < RUNS; run++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            readOnly.execute(status -> {
+                Object result = call.get();
+                entities[0] = entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+                return result;
+            });
+            nanos[run] = System.nanoTime() - start;
+            allocated[run] = THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+        }
+        Arrays.sort(nanos);
+        Arrays.sort(allocated);
+        log.info(String.format("%9d %-18s %10.1f %10.1f %12.1f %10d", expenses, path, nanos[RUNS / 2] / 1e6,
+                nanos[RUNS - 1] / 1e6, allocated[RUNS / 2] / 1048576.0, entities[0]));
+    }
+
+    private long[] seedUsers() {
+        long[] userIds = new long[MEMBERS];
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < MEMBERS; i++) {
+            userIds[i] = FIRST_ID + i;
+            rows.add(new Object[]{userIds[i], "bench" + i + "@splitfriend.local", "x", "Bench " + i, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, email, password_hash, name, role, enabled, created_at) " +
+                "VALUES (?, ?, ?, ?, 'USER', TRUE, ?)", rows);
+        return userIds;
+    }
+
+    private void seedGroup(long groupId, long[] userIds, int expenseCount, Random random) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO groups (id, name, currency, created_by, created_at) VALUES (?, ?, 'CAD', ?, ?)",
+                groupId, "Bench " + expenseCount, userIds[0], now);
+        List<Object[]> members = new ArrayList<>();
+        for (int i = 0; i < userIds.length; i++) {
+            members.add(new Object[]{groupId * 100 + i, groupId, userIds[i], now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO group_members (id, group_id, user_id, joined_at) VALUES (?, ?, ?, ?)",
+                members);
+
+        long firstExpenseId = groupId * 1_000_000;
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> splits = new ArrayList<>();
+        for (int e = 0; e < expenseCount; e++) {
+            long expenseId = firstExpenseId + e;
+            long share = 100 + random.nextInt(10_000);
+            expenses.add(new Object[]{expenseId, groupId, userIds[random.nextInt(MEMBERS)],
+                    share * SPLITS_PER_EXPENSE, Date.valueOf(LocalDate.now().minusDays(e % 1000)), now});
+            int first = random.nextInt(MEMBERS);
+            for (int s = 0; s < SPLITS_PER_EXPENSE; s++) {
+                splits.add(new Object[]{expenseId * SPLITS_PER_EXPENSE + s, expenseId,
+                        userIds[(first + s) % MEMBERS], share});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO expenses (id, group_id, paid_by, description, amount, split_type, " +
+                "expense_date, created_at) VALUES (?, ?, ?, 'Bench', ?, 'EQUAL', ?, ?)", expenses);
+        jdbcTemplate.batchUpdate("INSERT INTO expense_splits (id, expense_id, user_id, amount) VALUES (?, ?, ?, ?)",
+                splits);
+
+        List<Object[]> settlements = new ArrayList<>();
+        for (int s = 0; s < expenseCount / 20; s++) {
+            int from = random.nextInt(MEMBERS);
+            settlements.add(new Object[]{firstExpenseId + s, groupId, userIds[from],
+                    userIds[(from + 1 + random.nextInt(MEMBERS - 1)) % MEMBERS], 100 + random.nextInt(5_000), now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO settlements (id, group_id, from_user, to_user, amount, settled_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", settlements);
+    }
+}
@@ -0,0 +1,77 @@
+package com.splitfriend.service;
+
+import com.splitfriend.model.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares solve time and transfer count of the greedy and optimal plans across group sizes,
+ * with the default exact-size limit and time budget. Run with {@code mvn test -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class DebtSimplificationBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DebtSimplificationBenchmarkTest.class);
+
+    private static final int[] GROUP_SIZES = {4, 8, 12, 16, 20, 30, 40, 60};
+    private static final int WARMUP_RUNS = 20;
+    private static final int RUNS = 30;
+
+    private final DebtSimplificationService service = new DebtSimplificationService(18, Duration.ofMillis(250));
+
+    @Test
+    void compareGreedyAndOptimal() {
+        Random random = new Random(2024);
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            Map<Long, Money> balances = balances(OptimalDebtSolverTest.randomBalances(random, 16));
+            service.simplifyDebts(balances, Map.of());
+            service.simplifyDebtsOptimal(balances, Map.of());
+        }
+
+        log.info(String.format("%6s %14s %14s %14s %16s %16s", "size", "greedy p50 us", "optimal p50 us",
+                "optimal max us", "greedy transfers", "optimal transfers"));
+        for (int size : GROUP_SIZES) {
+            long[] greedyNanos = new long[RUNS];
+            long[] optimalNanos = new long[RUNS];
+            long greedyTransfers = 0;
+            long optimalTransfers = 0;
+            for (int run = 0; run < RUNS; run++) {
+                Map<Long, Money> balances = balances(OptimalDebtSolverTest.randomBalances(random, size));
+
+                long start = System.nanoTime();
+                int greedy = service.simplifyDebts(balances, Map.of()).size();
+                greedyNanos[run] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                int optimal = service.simplifyDebtsOptimal(balances, Map.of()).size();
+                optimalNanos[run] = System.nanoTime() - start;
+
+                assertThat(optimal).isLessThanOrEqualTo(greedy);
+                greedyTransfers += greedy;
+                optimalTransfers += optimal;
+            }
+            Arrays.sort(greedyNanos);
+            Arrays.sort(optimalNanos);
+            log.info(String.format("%6d %14d %14d %14d %16d %16d", size, greedyNanos[RUNS / 2] / 1000,
+                    optimalNanos[RUNS / 2] / 1000, optimalNanos[RUNS - 1] / 1000, greedyTransfers, optimalTransfers));
+        }
+    }
+
+    private static Map<Long, Money> balances(long[] amounts) {
+        Map<Long, Money> balances = new LinkedHashMap<>();
+        for (int i = 0; i < amounts.length; i++) {
+            balances.put(i + 1L, Money.ofMinorUnits(amounts[i]));
+        }
+        return balances;
+    }
+}
@@ -0,0 +1,96 @@
+package com.splitfriend.service;
+
+import com.splitfriend.dto.BalanceDTO;
+import com.splitfriend.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DebtSimplificationServiceTest {
+
+    private final DebtSimplificationService service = new DebtSimplificationService(18, Duration.ofSeconds(5));
+
+    @Test
+    void optimalPlanBeatsGreedyWhenTheGroupSplits() {
+        // {9, 5, -14} and {-3, -4, 7} settle separately with two transfers each
+        Map<Long, Money> balances = balances(-300, 900, 500, -400, 700, -1400);
+
+        List<BalanceDTO.DebtDTO> greedy = service.simplifyDebts(balances, Map.of());
+        List<BalanceDTO.DebtDTO> optimal = service.simplifyDebtsOptimal(balances, Map.of());
+
+        assertThat(greedy).hasSize(5);
+        assertThat(optimal).hasSize(4);
+        assertSettles(balances, optimal);
+    }
+
+    @Test
+    void optimalPlanSettlesEveryBalanceWithNoMoreTransfersThanGreedy() {
+        Random random = new Random(11);
+        for (int run = 0; run < 200; run++) {
+            Map<Long, Money> balances = balances(
+                    OptimalDebtSolverTest.randomBalances(random, 2 + random.nextInt(24)));
+
+            List<BalanceDTO.DebtDTO> greedy = service.simplifyDebts(balances, Map.of());
+            List<BalanceDTO.DebtDTO> optimal = service.simplifyDebtsOptimal(balances, Map.of());
+
+            assertSettles(balances, greedy);
+            assertSettles(balances, optimal);
+            assertThat(optimal.size()).isLessThanOrEqualTo(greedy.size());
+        }
+    }
+
+    @Test
+    void residueLeftByExactSplitsIsLeftUnsettledLikeGreedy() {
+        // Off by one cent: the largest creditor keeps it
+        Map<Long, Money> balances = balances(-300, 900, 500, -400, 700, -1399);
+
+        List<BalanceDTO.DebtDTO> optimal = service.simplifyDebtsOptimal(balances, Map.of());
+
+        Map<Long, Long> open = applyTransfers(balances, optimal);
+        assertThat(open.values().stream().mapToLong(Long::longValue).map(Math::abs).sum()).isEqualTo(1);
+        assertThat(optimal.size()).isLessThanOrEqualTo(service.simplifyDebts(balances, Map.of()).size());
+    }
+
+    @Test
+    void usesMemberNamesAndFallsBackToTheId() {
+        Map<Long, Money> balances = balances(500, -500);
+
+        List<BalanceDTO.DebtDTO> debts = service.simplifyDebtsOptimal(balances, Map.of(1L, "Alice"));
+
+        assertThat(debts).singleElement().satisfies(debt -> {
+            assertThat(debt.getFromUserName()).isEqualTo("User 2");
+            assertThat(debt.getToUserName()).isEqualTo("Alice");
+            assertThat(debt.getAmount()).isEqualTo(Money.ofMinorUnits(500));
+        });
+    }
+
+    private static Map<Long, Money> balances(long... amounts) {
+        Map<Long, Money> balances = new LinkedHashMap<>();
+        for (int i = 0; i < amounts.length; i++) {
+            balances.put(i + 1L, Money.ofMinorUnits(amounts[i]));
+        }
+        return balances;
+    }
+
+    private static Map<Long, Long> applyTransfers(Map<Long, Money> balances, List<BalanceDTO.DebtDTO> debts) {
+        Map<Long, Long> open = new HashMap<>();
+        balances.forEach((id, amount) -> open.put(id, amount.getMinorUnits()));
+        for (BalanceDTO.DebtDTO debt : debts) {
+            assertThat(debt.getAmount().isPositive()).isTrue();
+            open.merge(debt.getFromUserId(), debt.getAmount().getMinorUnits(), Long::sum);
+            open.merge(debt.getToUserId(), -debt.getAmount().getMinorUnits(), Long::sum);
+        }
+        return open;
+    }
+
+    private static void assertSettles(Map<Long, Money> balances, List<BalanceDTO.DebtDTO> debts) {
+        assertThat(applyTransfers(balances, debts).values()).allMatch(amount -> amount == 0);
+    }
+}
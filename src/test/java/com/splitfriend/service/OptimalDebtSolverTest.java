@@ -0,0 +1,164 @@
+package com.splitfriend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OptimalDebtSolverTest {
+
+    private static final long NO_BUDGET_LIMIT = TimeUnit.SECONDS.toNanos(30);
+
+    private final OptimalDebtSolver exact = new OptimalDebtSolver(18, NO_BUDGET_LIMIT);
+    private final OptimalDebtSolver searchOnly = new OptimalDebtSolver(0, NO_BUDGET_LIMIT);
+
+    @Test
+    void splitsIntoIndependentGroups() {
+        long[] amounts = {-300, 900, 500, -400, 700, -1400};
+
+        List<int[]> groups = exact.partition(amounts, 1);
+
+        assertValidPartition(amounts, groups);
+        assertThat(groups).hasSize(2);
+    }
+
+    @Test
+    void pairsExactOppositesWithoutSearching() {
+        long[] amounts = {250, -250, 100, -100, 75, -75};
+
+        List<int[]> groups = new OptimalDebtSolver(0, 0).partition(amounts, 1);
+
+        assertValidPartition(amounts, groups);
+        assertThat(groups).hasSize(3);
+    }
+
+    @Test
+    void dynamicProgramMatchesBruteForce() {
+        Random random = new Random(42);
+        for (int run = 0; run < 300; run++) {
+            long[] amounts = randomBalances(random, 2 + random.nextInt(9));
+
+            List<int[]> groups = exact.partition(amounts, 0);
+
+            assertValidPartition(amounts, groups);
+            assertThat(groups).hasSize(bruteForceGroups(amounts, (1 << amounts.length) - 1));
+        }
+    }
+
+    @Test
+    void searchMatchesDynamicProgram() {
+        Random random = new Random(7);
+        for (int run = 0; run < 100; run++) {
+            long[] amounts = randomBalances(random, 4 + random.nextInt(13));
+
+            List<int[]> expected = exact.partition(amounts, 0);
+            List<int[]> found = searchOnly.partition(amounts, 0);
+
+            assertValidPartition(amounts, found);
+            assertThat(found).hasSameSizeAs(expected);
+        }
+    }
+
+    @Test
+    void returnsNullWhenTheBoundCannotBeBeaten() {
+        long[] amounts = {-300, 900, 500, -400, 700, -1400};
+
+        assertThat(exact.partition(amounts, 2)).isNull();
+        assertThat(searchOnly.partition(amounts, 2)).isNull();
+    }
+
+    @Test
+    void searchGivesUpWhenTheBudgetRunsOut() {
+        long[] amounts = randomBalances(new Random(3), 40);
+
+        assertThat(new OptimalDebtSolver(0, 0).partition(amounts, 1)).isNull();
+    }
+
+    @Test
+    void leavesGroupsTooLargeToSearchToTheCaller() {
+        long[] amounts = new long[OptimalDebtSolver.MAX_SEARCH_PARTICIPANTS + 2];
+        for (int i = 0; i < amounts.length - 1; i++) {
+            amounts[i] = 100 + i;
+        }
+        long total = 0;
+        for (long amount : amounts) {
+            total += amount;
+        }
+        amounts[amounts.length - 1] = -total;
+
+        assertThat(exact.partition(amounts, 0)).isNull();
+    }
+
+    /**
+     * Zero-sum balances built from a few zero-sum groups, so the optimum usually has more than one group.
+     */
+    static long[] randomBalances(Random random, int n) {
+        List<Long> amounts = new ArrayList<>();
+        while (amounts.size() < n) {
+            int size = Math.min(n - amounts.size(), 2 + random.nextInt(4));
+            if (n - amounts.size() - size == 1) {
+                size++;
+            }
+            List<Long> group = new ArrayList<>();
+            long total = 0;
+            while (total == 0) {
+                group.clear();
+                for (int i = 0; i < size - 1; i++) {
+                    long amount = (1 + random.nextInt(50_000)) * (random.nextBoolean() ? 1 : -1);
+                    group.add(amount);
+                    total += amount;
+                }
+            }
+            group.add(-total);
+            amounts.addAll(group);
+        }
+        Collections.shuffle(amounts, random);
+        return amounts.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static void assertValidPartition(long[] amounts, List<int[]> groups) {
+        assertThat(groups).isNotNull();
+        boolean[] seen = new boolean[amounts.length];
+        for (int[] group : groups) {
+            long sum = 0;
+            for (int i : group) {
+                assertThat(seen[i]).as("member %d in two groups", i).isFalse();
+                seen[i] = true;
+                sum += amounts[i];
+            }
+            assertThat(sum).isZero();
+        }
+        for (int i = 0; i < seen.length; i++) {
+            assertThat(seen[i]).as("member %d in no group", i).isTrue();
+        }
+    }
+
+    private static int bruteForceGroups(long[] amounts, int mask) {
+        if (mask == 0) {
+            return 0;
+        }
+        int first = Integer.numberOfTrailingZeros(mask);
+        int others = mask & ~(1 << first);
+        int best = Integer.MIN_VALUE;
+        // Try every group containing the lowest remaining member
+        for (int subset = others; ; subset = (subset - 1) & others) {
+            int group = subset | (1 << first);
+            long sum = 0;
+            for (int bits = group; bits != 0; bits &= bits - 1) {
+                sum += amounts[Integer.numberOfTrailingZeros(bits)];
+            }
+            if (sum == 0) {
+                best = Math.max(best, 1 + bruteForceGroups(amounts, mask & ~group));
+            }
+            if (subset == 0) {
+                break;
+            }
+        }
+        return best;
+    }
+}